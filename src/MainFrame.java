@@ -1,17 +1,23 @@
 import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.Graphics2D;
-import java.nio.IntBuffer;
+import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.TimeZone;
 
 import javax.swing.JFrame;
 
-import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GL2ES1;
@@ -23,16 +29,23 @@ import com.jogamp.opengl.awt.GLCanvas;
 import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
 import com.jogamp.opengl.glu.GLU;
-import com.jogamp.opengl.glu.GLUquadric;
-import com.jogamp.opengl.util.Animator;
 import com.jogamp.opengl.util.gl2.GLUT;
 
-import astro.MessierData;
-import astro.ObjectData;
 import astro.PolarProjectionMap;
-import astro.PolarProjectionMap.MilkyWayPoint;
+import astro.SkyComputeThread;
+import astro.SkySnapshot;
 import astro.util.Date;
-import texture.TextureHandler;
+import render.LabelLayout;
+import render.LayerCache;
+import render.PlanetMeshes;
+import render.RenderLoop;
+import render.SkyRenderer;
+import render.TextRenderer;
+import texture.ResourceRetriever;
+import texture.TextureAtlas;
+import texture.TextureCache;
+import texture.ManagedTexture;
+import texture.TextureManager;
 
 /**
  * Simple JOGL class for displaying a Polar Projection Map. All the JOGL code is in here.
@@ -46,10 +59,13 @@ import texture.TextureHandler;
 
 //"c:\Program Files\Java\jdk1.8.0_101\bin\keytool.exe" -selfcert -alias starchart -keystore starchart -validity 365
 //"c:\Program Files\Java\jdk1.8.0_101\bin\jarsigner.exe" -keystore starchart starchart_20171027.jar starchart
-public class MainFrame extends JFrame implements GLEventListener, KeyListener, MouseListener {
+public class MainFrame extends JFrame implements GLEventListener, KeyListener, MouseListener, MouseMotionListener {
 	private static final long serialVersionUID = 1L;
 	private GLCanvas canvas;
-	private Animator animator;
+	// Draws a frame only when something changed.
+	private RenderLoop renderLoop;
+	// Frames per second at most, e.g. java -Dstarchart.fps=20 PolarProjectionMap
+	private static final int MAX_FPS = Integer.getInteger("starchart.fps", RenderLoop.DEFAULT_MAX_FPS);
 
 	private GLUT glut = null;
 
@@ -62,10 +78,20 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 	// Use this in case display lists are preferred. The code is commented in the init method.
 	private double v_size = 1;
 
-	// The id of the selected object.
-	private int idToShow;
+	// The id of the selected object: the index of a Solar System object, or
+	// SkyRenderer.MESSIER_ID_OFFSET plus the index of a Messier object.
+	private volatile int idToShow;
 	// The choice whether to show or not the info on the selected object.
-	private boolean showInfo = false;
+	private volatile boolean showInfo = false;
+	// The object under the mouse, stars included, or -1.
+	private volatile int idHovered = -1;
+	// Stars are only picked for the tooltips, after the other objects.
+	private static final int STAR_ID_OFFSET = 1000;
+	// Objects this close to the mouse, in pixels, can be picked.
+	private static final int PICK_PIXELS = 6;
+	// Margin in pixels around the window in which the stars are still drawn,
+	// the largest ones being about this wide.
+	private static final int CULL_PIXELS = 10;
 	
 	// The choice whether to show or not the constellation lines.
 	private boolean showConLines = false;
@@ -73,6 +99,9 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 	// The choice whether to shoe the info text or not (constellation and Messier names)
 	private boolean showAllNames = true;
 
+	// The choice whether to project the stars and lines on the GPU.
+	private boolean shaderProjection = false;
+
 	// Variables for moving the scene. Simple scaling and translation, no camera
 	// movement.
 	private float scaleX = 1, scaleY = 1, scaleZ = 1, posX = 0, posY = 0, posZ = 0;
@@ -80,11 +109,39 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 
 	// Variables for storing the mouse coordinates when a click event occurs.
 	private int mouseX, mouseY;
-	// Default mode is GL_RENDER;
-	private int mode = GL2.GL_RENDER;
 
-	// Lists for storing the textures.
-	ArrayList<TextureHandler> textures = null, texturesSS = null,texturesSSMap = null;
+	// Computes the sky in the background. Drawing only uses the snapshot
+	// taken at the beginning of each frame.
+	private SkyComputeThread sky = null;
+	private volatile SkySnapshot snapshot = null;
+	// Keeps the geometry of the snapshot on the GPU.
+	private SkyRenderer renderer = new SkyRenderer();
+	// The names on the map, the cardinal points and the date and tooltips,
+	// each drawn in one batch.
+	private TextRenderer labels = new TextRenderer(new Font(Font.SERIF, Font.PLAIN, 11));
+	private TextRenderer cardinals = new TextRenderer(new Font(Font.SERIF, Font.PLAIN, 24));
+	private TextRenderer hud = new TextRenderer(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+	// Keeps the names from overlapping and their number bounded.
+	private LabelLayout layout = new LabelLayout(this.labels, 300);
+	// The spinning object of the information panel, and Saturn's ring.
+	private static final float PLANET_RADIUS = 0.5f;
+	private PlanetMeshes planet = new PlanetMeshes(MainFrame.PLANET_RADIUS, 0.7f, 1.1f);
+	// The map, redrawn only when what it shows changes. The panels, the
+	// tooltip and the clock are drawn over it every frame.
+	private LayerCache skyLayer = new LayerCache();
+	private final double[] skyState = new double[11], drawnSkyState = new double[11];
+
+	// The time selected with the < and > keys.
+	private double hour;
+	private int day, month, year;
+
+	// Decodes the images in the background, keeping them between runs.
+	private TextureCache textureCache = null;
+	private TextureManager textureManager = null;
+	// The icons of the Messier and Solar System objects.
+	TextureAtlas icons = null;
+	// The maps of the Solar System objects, loaded the first time they are shown.
+	private static final String[] SS_NAMES = {"sun", "mercury", "venus", "moon", "mars", "jupiter", "saturn", "uranus", "neptune"};
 
 	public MainFrame() throws Exception {
 		super("Harta Astronomica v1.2 (c) 2009 - 2021, Marc E. Frincu - marc.frincu@e-uvt.ro (Societatea Romana pentru Astronomie Culturala)");
@@ -107,6 +164,38 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 
 		ppm.initializeSolarSystemObjects();
 
+		// Used if the fixed objects are projected on the GPU.
+		this.renderer.setCatalogs(ppm.getConStars(), ppm.getConLines(),
+				ppm.getConBoundaryLines(), ppm.getMilkyWay());
+
+		this.sky = new SkyComputeThread(ppm);
+		this.sky.start();
+
+		try {
+			// The images are read from the archive, it does not have to be unzipped
+			if (new File("images.zip").isFile())
+				ResourceRetriever.mount("images.zip", "images/");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		try {
+			this.textureCache = new TextureCache("cache/textures.cache");
+		} catch (IOException e) {
+			// Every image is decoded then
+			e.printStackTrace();
+		}
+		this.textureManager = new TextureManager(this.textureCache);
+
+		// Start decoding the icons while the window is created. The ids are
+		// the ones used for picking.
+		this.icons = new TextureAtlas(TextureAtlas.DEFAULT_WIDTH);
+		for (int i = 1; i <= 110; i++) {
+			this.icons.add(SkyRenderer.getMessierId("M" + i), this.textureManager.decode("images/m" + i + ".jpg"));
+		}
+		for (int i = 0; i < MainFrame.SS_NAMES.length; i++) {
+			this.icons.add(i, this.textureManager.decode("images/" + MainFrame.SS_NAMES[i] + ".jpg"));
+		}
+
 		this.initializeJogl();
 	}
 
@@ -140,12 +229,39 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 		this.canvas.addGLEventListener(this);
 		this.canvas.addKeyListener(this);
 		this.canvas.addMouseListener(this);
-
-		// Creating an animator that will redraw the scene 40 times per second.
-		this.animator = new Animator(this.canvas);
+		this.canvas.addMouseMotionListener(this);
+
+		// Redraw the scene on input, when the sky changes and once per second for
+		// the clock, at most MAX_FPS times per second.
+		this.renderLoop = new RenderLoop(this.canvas);
+		this.renderLoop.setMaxFps(MainFrame.MAX_FPS);
+		this.sky.setListener(new Runnable() {
+			public void run() {
+				MainFrame.this.renderLoop.requestRender();
+			}
+		});
 					
-		// Starting the animator.
-		this.animator.start();
+		// Nothing is drawn while the window is minimized or hidden.
+		this.addWindowListener(new WindowAdapter() {
+			public void windowIconified(WindowEvent e) {
+				MainFrame.this.renderLoop.setPaused(true);
+			}
+
+			public void windowDeiconified(WindowEvent e) {
+				MainFrame.this.renderLoop.setPaused(false);
+			}
+		});
+		this.canvas.addComponentListener(new ComponentAdapter() {
+			public void componentHidden(ComponentEvent e) {
+				MainFrame.this.renderLoop.setPaused(true);
+			}
+
+			public void componentShown(ComponentEvent e) {
+				MainFrame.this.renderLoop.setPaused(false);
+			}
+		});
+
+		this.renderLoop.start();
 	}
 	
 	private GLU glu;
@@ -196,67 +312,23 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 
 		// Choose the shading model.
 		gl.glShadeModel(GLLightingFunc.GL_SMOOTH);
-
-		// Load the Messier textures.
-		textures = new ArrayList<TextureHandler>();
-		TextureHandler tex = null;
-		for (int i = 1; i <= 110; i++) {
-			tex = new TextureHandler(gl, glu, "images/m" + i + ".jpg", false);
-			textures.add(tex);
-		}
 
-		// Load the Solar System textures.
-		texturesSS = new ArrayList<TextureHandler>();
-		tex = new TextureHandler(gl, glu, "images/sun.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/mercury.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/venus.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/moon.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/mars.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/jupiter.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/saturn.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/uranus.jpg", false);
-		texturesSS.add(tex);
-		tex = new TextureHandler(gl, glu, "images/neptune.jpg", false);
-		texturesSS.add(tex);
-
-		texturesSSMap = new ArrayList<TextureHandler>();
-		tex = new TextureHandler(gl, glu, "images/sun_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/mercury_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/venus_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/moon_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/mars_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/jupiter_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/saturn_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/uranus_map.jpg", false);
-		texturesSSMap.add(tex);
-		tex = new TextureHandler(gl, glu, "images/neptune_map.jpg", false);
-		texturesSSMap.add(tex);
+		this.renderer.init(gl);
+		this.labels.init(gl);
+		this.cardinals.init(gl);
+		this.hud.init(gl);
+
+		// The icons are uploaded by the renderer once they are decoded.
+		this.renderer.setIcons(this.icons);
 	}
 
 	public void display(GLAutoDrawable canvas) {
 		GL2 gl = canvas.getGL().getGL2();
 		
-		if (this.mode == GL2.GL_RENDER) {
-			// only clear the buffers when in GL_RENDER mode. Avoids flickering
-			gl.glClear(GL.GL_COLOR_BUFFER_BIT);
-			this.drawScene(gl);
-		} else {
-			this.pickHandle(gl, this.mouseX, this.mouseY);
-		}
+		this.snapshot = this.sky.getSnapshot();
+
+		gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+		this.drawScene(gl);
 	}
 
 	double dpiScalingFactor = 1;
@@ -279,6 +351,7 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 		
 		this.wH = height;
 		this.wW = width;
+		this.updateMapRadius();
 
 		// Determining the width to height ratio of the widget.
 		double ratio = (double) width / (double) height;
@@ -309,10 +382,23 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 		gl.glTranslatef(posX, posY, posZ);
 		gl.glScalef(scaleX, scaleY, scaleZ);
 		// gl.glCallList(this.ppm_list);
-		this.makePPM(gl);
+		if (this.isSkyChanged() || !this.skyLayer.isValid(this.wW, this.wH)) {
+			if (this.skyLayer.begin(gl, this.wW, this.wH)) {
+				this.makePPM(gl);
+				this.skyLayer.end(gl);
+			}
+			else {
+				// No framebuffer objects, the map is drawn every frame.
+				this.makePPM(gl);
+			}
+		}
+		if (this.skyLayer.isValid(this.wW, this.wH))
+			this.skyLayer.draw(gl);
 
 		if (this.showInfo)
 			this.showInfo(gl, this.idToShow);
+		else if (this.idHovered != -1)
+			this.showTooltip(gl, this.idHovered);
 
 		this.showTime(gl);		
 		
@@ -320,6 +406,30 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 		gl.glFlush();
 	}
 
+	/**
+	 * Returns true if the map looks different than when it was last drawn:
+	 * new positions, another view or other layers shown
+	 */
+	private boolean isSkyChanged() {
+		final double[] state = this.skyState;
+		state[0] = this.snapshot.getVersion();
+		state[1] = this.posX;
+		state[2] = this.posY;
+		state[3] = this.scaleX;
+		state[4] = this.scaleY;
+		state[5] = this.wW;
+		state[6] = this.wH;
+		state[7] = this.showConLines ? 1 : 0;
+		state[8] = this.showAllNames ? 1 : 0;
+		state[9] = this.renderer.isShaderProjection() ? 1 : 0;
+		// The icons replace their placeholders once decoded
+		state[10] = this.icons.isLoaded() ? 1 : 0;
+		if (Arrays.equals(state, this.drawnSkyState))
+			return false;
+		System.arraycopy(state, 0, this.drawnSkyState, 0, state.length);
+		return true;
+	}
+
 	/**
 	 * This method is responsible for drawing the Polar Projection Map and
 	 * contents
@@ -327,34 +437,18 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 	 * @param gl
 	 */
 	private void makePPM(GL2 gl) {
-		float size = 0.005f;
-		int i = 0;
-		TextureHandler tex = null;
-		final ArrayList<PolarProjectionMap.ConstellationLine> clLines = ppm
-				.getConLines();
-		final ArrayList<PolarProjectionMap.ConstellationName> clNames = ppm
-				.getConNames();
-		final ArrayList<PolarProjectionMap.ConstellationStar> clStars = ppm
-				.getConStars();
-		final ArrayList<PolarProjectionMap.ConstellationBoundaryLine> clBoundaries = ppm
-				.getConBoundaryLines();
-		final ArrayList<ObjectData> ssObjects = ppm.getPInfo().getObjects();
-		final ArrayList<MessierData> messObjects = ppm.getMessData();
-		final ArrayList<MilkyWayPoint> mwPoints = ppm.getMilkyWayPoints();
-
-		
-		ArrayList<ObjectData> ecliptic= this.ppm.updateEcliptic();		
+		final SkySnapshot sky = this.snapshot;
+
+		// Send the new positions to the GPU if the sky has changed.
+		this.renderer.update(gl, sky);
+		// Only what is seen in the window is drawn.
+		this.setRendererView();
+		this.beginLabels(this.labels);
+		this.beginLabels(this.cardinals);
 		
 		gl.glPushMatrix();
 			gl.glColor3f(0.0f, 0.2f, 0.2f);
-			gl.glBegin(GL2.GL_LINES);
-				for (int j=0; j<ecliptic.size()-1;j++) {
-					if (ecliptic.get(j).isVisiblePP() && ecliptic.get(j+1).isVisiblePP()) {
-						gl.glVertex2d(ecliptic.get(j).getXpp(), ecliptic.get(j).getYpp());
-						gl.glVertex2d(ecliptic.get(j+1).getXpp(), ecliptic.get(j+1).getYpp());
-					}
-				}
-			gl.glEnd();
+			this.renderer.drawEcliptic(gl);
 		gl.glPopMatrix();
 
 		
@@ -363,15 +457,7 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 				// Draw the constellation lines.
 				gl.glColor3f(.9f, 0.0f, 0.0f);
 				gl.glLineStipple(1, (short) 0x07);
-				gl.glBegin(GL2.GL_LINES);
-					for (PolarProjectionMap.ConstellationLine cl : clLines) {
-						if (cl.isVisible()) {
-							gl.glVertex2d(cl.getPosX1(), cl.getPosY1());
-							gl.glVertex2d(cl.getPosX2(), cl.getPosY2());
-			
-						}
-					}
-				gl.glEnd();
+				this.renderer.drawConLines(gl);
 			gl.glPopMatrix();
 		}
 		
@@ -380,175 +466,36 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			// Draw the constellation boundaries.        
 			gl.glColor3f(.8f, .8f, 0.0f);
 			gl.glLineStipple(1, (short) 0x3F07);
-			gl.glBegin(GL2.GL_LINES);
-				for (PolarProjectionMap.ConstellationBoundaryLine cb : clBoundaries) {
-					if (cb.isVisible()) {
-						gl.glVertex2d(cb.getPosX1(), cb.getPosY1());
-						gl.glVertex2d(cb.getPosX2(), cb.getPosY2());
-		
-					}
-				}
-			gl.glEnd();
+			this.renderer.drawConBoundaries(gl);
 		gl.glPopMatrix();
 		gl.glDisable(GL2.GL_LINE_STIPPLE);
 		
 		gl.glPushMatrix();
 		// Draw the stars.
 			gl.glColor3f(1.0f, 0.0f, 0.0f);
+			this.renderer.drawStars(gl);
 
-			gl.glEnable(GL2.GL_POINT_SMOOTH);
-			int x=0;
-			for (PolarProjectionMap.ConstellationStar cs : clStars) {
-				if (cs.isVisible()) {
-					x++;
-					gl.glPointSize((float)(2*(7-cs.getMag())));
-					gl.glColor3f(1.0f, 0.0f, 0.0f);
-					gl.glBegin(GL.GL_POINTS);
-						gl.glVertex2d(cs.getPosX(), cs.getPosY());
-					gl.glEnd();
-					
-					if (this.showAllNames && (cs.getName().compareTo("alfa") == 0 || (cs.getName().compareTo("beta") == 0))) {
-						gl.glColor3f(1.0f, 1.0f, 1.0f);
-						gl.glRasterPos2d(cs.getPosX(), cs.getPosY());
-						glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_10, cs.getName());
-					}
-				}
-			}
-			gl.glDisable(GL2.GL_POINT_SMOOTH);
 		gl.glPopMatrix();
 		
 		gl.glPushMatrix();
 		// Draw the Milky Way.
 			gl.glColor3f(0.0f, 1.0f, 0.0f);
-			gl.glBegin(GL.GL_LINES);
-			PolarProjectionMap.MilkyWayPoint mwp = null;
-				for (int index = 0; index<mwPoints.size(); index++) {
-					mwp = mwPoints.get(index);
-					if (mwp.isVisible()) {
-						if (mwp.getRa() == Double.MIN_VALUE && mwp.getDec() == Double.MIN_VALUE) {
-							gl.glEnd();
-							gl.glBegin(GL.GL_LINES);
-							//System.out.println("NEW LINE LOOP");
-						}
-						else {
-							if (index > 1 && mwPoints.get(index-1).isVisible()) {
-								gl.glVertex2d(mwPoints.get(index-1).getX(), mwPoints.get(index-1).getY());
-							//	System.out.println("PREV " +(index-1) + " " + mwPoints.get(index-1).getX() + " " + mwPoints.get(index-1).getY() + " " + mwPoints.get(index-1).isVisible()) ;
-
-								gl.glVertex2d(mwp.getX(), mwp.getY());
-							//	System.out.println(index +" " + mwp.getX() + " " + mwp.getY() + " " + mwp.isVisible()) ;
-							}
-						}
-					}
-					
-				}
-			gl.glEnd();
+			this.renderer.drawMilkyWay(gl);
 		gl.glPopMatrix();
 		
 
-		if (this.showAllNames) {
-			gl.glPushMatrix();
-			// Draw the constellation names.
-			gl.glColor3f(0.0f, 0.0f, 1.0f);
-				for (PolarProjectionMap.ConstellationName cn : clNames) {
-					if (cn.isVisible()) {
-						gl.glRasterPos2d(cn.getPosX(), cn.getPosY());
-						glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_10, cn.getName());
-					}
-				}
-			gl.glPopMatrix();
-		}
 
 		gl.glPushMatrix();
 			// Draw the Messier objects.
 			gl.glColor3f(0.0f, 1.0f, 1.0f);
-			for (MessierData mo : messObjects) {
-				if (mo.isVisible()) {
-	
-					if (mode == GL2.GL_SELECT) {
-						// Push on the name stack the name (id) of the object.
-						gl.glPushName(Integer.parseInt(mo.getName().substring(1)) - 1 + 10);
-					}
-	
-					gl.glDisable(GL.GL_BLEND);
-					
-					tex = textures.get(Integer.parseInt(mo.getName().substring(1)) - 1);										
-					tex.bind();
-					tex.enable();
-	
-					gl.glBegin(GL2.GL_QUADS);
-						gl.glTexCoord2d(0, 0);
-						gl.glVertex2d(mo.getX() - size, mo.getY() - size);
-						gl.glTexCoord2d(1, 0);
-						gl.glVertex2d(mo.getX() + size, mo.getY() - size);
-						gl.glTexCoord2d(1, 1);
-						gl.glVertex2d(mo.getX() + size, mo.getY() + size);
-						gl.glTexCoord2d(0, 1);
-						gl.glVertex2d(mo.getX() - size, mo.getY() + size);	
-					gl.glEnd();
-					
-					tex.disable();
-					gl.glEnable(GL.GL_BLEND);
-	
-					if (this.mode == GL2.GL_SELECT) {
-						// Pop from the name stack the name (id) of the object.
-						gl.glPopName();
-					}
-	
-					if (this.showAllNames) {
-						gl.glRasterPos2d(mo.getX(), mo.getY());
-						glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_10, mo.getName());
-					}
-					i++;
-				}
-			}
+			// All the icons at once.
+			this.renderer.drawMessierIcons(gl);
 		gl.glPopMatrix();
 
 		gl.glPushMatrix();
 			// Draw the Solar System objects.
-			size = 0.01f;
-			i = 0;
 			gl.glColor3f(1.0f, 1.0f, 1.0f);
-			for (ObjectData o : ssObjects) {
-				if (o.isVisiblePP()) {
-	
-					if (this.mode == GL2.GL_SELECT) {
-						// Push on the name stack the name (id) of the sphere.
-						gl.glPushName(i);
-					}
-
-					gl.glDisable(GL.GL_BLEND);
-					
-					tex = texturesSS.get(i);
-					tex.bind();
-					tex.enable();
-	
-					gl.glBegin(GL2.GL_QUADS);
-						gl.glTexCoord2d(0, 0);
-						gl.glVertex2d(o.getXpp() - size, o.getYpp() - size);
-						gl.glTexCoord2d(1, 0);
-						gl.glVertex2d(o.getXpp() + size, o.getYpp() - size);
-						gl.glTexCoord2d(1, 1);
-						gl.glVertex2d(o.getXpp() + size, o.getYpp() + size);
-						gl.glTexCoord2d(0, 1);
-						gl.glVertex2d(o.getXpp() - size, o.getYpp() + size);	
-					gl.glEnd();
-					
-					tex.disable();
-					gl.glEnable(GL.GL_BLEND);
-	
-					if (mode == GL2.GL_SELECT) {
-						// Pop from the name stack the name (id) of the sphere.
-						gl.glPopName();
-					}
-	
-					if (this.showAllNames) {
-						gl.glRasterPos2d(o.getXpp(), o.getYpp());
-						glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_10, o.getName());
-					}
-				}
-				i++;
-			}
+			this.renderer.drawBodyIcons(gl);
 		gl.glPopMatrix();
 
 		// Draw the cardinal points.
@@ -568,20 +515,16 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			gl.glEnd();
 		gl.glPopMatrix();
 		
-		gl.glPushMatrix();		
-			gl.glColor3f(1.0f, 1.0f, 1.0f);
-			gl.glRasterPos2d(np.getPosX(), np.getPosY());
-			glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_24, "N");
-	
-			gl.glRasterPos2d(wp.getPosX(), wp.getPosY()-0.06);
-			glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_24, "V");
-	
-			gl.glRasterPos2d(ep.getPosX(), ep.getPosY());
-			glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_24, "E");
+		this.cardinals.add("N", np.getPosX(), np.getPosY(), 1.0f, 1.0f, 1.0f);
+		this.cardinals.add("V", wp.getPosX(), wp.getPosY()-0.06, 1.0f, 1.0f, 1.0f);
+		this.cardinals.add("E", ep.getPosX(), ep.getPosY(), 1.0f, 1.0f, 1.0f);
+		this.cardinals.add("S", sp.getPosX()-0.05, sp.getPosY(), 1.0f, 1.0f, 1.0f);
 	
-			gl.glRasterPos2d(sp.getPosX()-0.05, sp.getPosY());
-			glut.glutBitmapString(GLUT.BITMAP_TIMES_ROMAN_24, "S");
-		gl.glPopMatrix();
+		// All the names at once, over the rest of the map.
+		if (this.showAllNames)
+			this.layout.draw(sky, this.wW, this.wH);
+		this.labels.draw(gl);
+		this.cardinals.draw(gl);
 		
 		/*
 		// Draw the ecliptic
@@ -624,17 +567,14 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			gl.glVertex2d(x,y+0.05);
 
 		gl.glEnd();*/
+	}
 
-		// Update the coordinates for the next display.
-		final double hour = this.ppm.getDate().getHour();
-		final int day = this.ppm.getDate().getDay();
-		final int month = this.ppm.getDate().getMonth();
-		final int year = this.ppm.getDate().getYear();
-
-		if (this.reset == true)
-			this.ppm.update();
-		else
-			this.ppm.update(hour, day, month, year);		
+	/**
+	 * Tells the map how large it is on the screen so it knows how much the sky
+	 * can move before it needs to be recomputed.
+	 */
+	private void updateMapRadius() {
+		this.ppm.getUpdateScheduler().setMapRadius(Math.min(this.wW, this.wH) / 2.0 * this.scaleX);
 	}
 
 	/**
@@ -645,36 +585,30 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 	 */
 	private void showTime(GL2 gl) {
 
-		final Date date;
-		
-		if (this.reset == false)
-			date = this.ppm.getDate();//new Date(this.ppm.getLongitude(), this.ppm.getTimeDiff());
-		else
-			date = new Date(this.ppm.getLongitude(), this.ppm.getTimeDiff());
+		// The date the map being shown was computed for
+		final Date date = this.snapshot.getDate();
 		
 		gl.glPushMatrix();
 			gl.glLoadIdentity();
-			gl.glColor3f(1, 1, 1);	
+			// Not moved nor scaled with the map
+			this.hud.begin(-v_size, -v_size, this.getViewWidth() / this.wW, this.getViewHeight() / this.wH);
 			if (this.reset == false) {			
-				gl.glRasterPos2d(-v_size + 0.05, 1.0);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Data: "
-						+ date.getDay() + "-" + date.getMonth() + "-" + date.getYear());
-				gl.glRasterPos2d(-v_size + 0.05, 0.95);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Ora: "
+				this.hud.add(" Data: "
+						+ date.getDay() + "-" + date.getMonth() + "-" + date.getYear(), -v_size + 0.05, 1.0, 1, 1, 1);
+				this.hud.add(" Ora: "
 					+ date.getHour() + ":" + date.getMinute() + ":" + date.getSecond() + " (UT "
-					+ ((this.ppm.getTimeDiff() > 0) ? "+" : "")
-					+ this.ppm.getTimeDiff() + ")");
+					+ ((this.snapshot.getTimeDiff() > 0) ? "+" : "")
+					+ this.snapshot.getTimeDiff() + ")", -v_size + 0.05, 0.95, 1, 1, 1);
 			}
 			else {
-				gl.glRasterPos2d(-v_size + 0.05, 1.0);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Data: "
-						+ Date.getCurrentDate());
-				gl.glRasterPos2d(-v_size + 0.05, 0.95);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Ora: "+
+				this.hud.add(" Data: "
+						+ Date.getCurrentDate(), -v_size + 0.05, 1.0, 1, 1, 1);
+				this.hud.add(" Ora: "+
 						Date.getCurrentTime() + " (TU "
-						+ ((this.ppm.getTimeDiff() > 0) ? "+" : "")
-						+ this.ppm.getTimeDiff() + ")");
+						+ ((this.snapshot.getTimeDiff() > 0) ? "+" : "")
+						+ this.snapshot.getTimeDiff() + ")", -v_size + 0.05, 0.95, 1, 1, 1);
 			}
+			this.hud.draw(gl);
 			//gl.glRasterPos2d(-v_size + 0.05, 0.90);
 			//glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Day no.: "
 					//+ date.getDayNumber());
@@ -714,15 +648,14 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			// this vector will hold the world Cartesian coordinates of the point we clicked on
 			double[] uprjC = new double[3];
 			
-			if (id < 10) {
-				ObjectData o = this.ppm.getPInfo().getObjects().get(id);
+			if (id < SkyRenderer.MESSIER_ID_OFFSET) {
+				SkySnapshot.Body o = this.snapshot.getBody(id);
 				x = o.getXpp();
 				y = o.getYpp();
 			}
 			else {
-				MessierData o = this.ppm.getMessData().get(id - 10);
-				x = o.getX();
-				y = o.getY();
+				x = this.snapshot.getMessier().getX(id - SkyRenderer.MESSIER_ID_OFFSET);
+				y = this.snapshot.getMessier().getY(id - SkyRenderer.MESSIER_ID_OFFSET);
 			}
 			
 			glu.gluUnProject(this.mouseX, viewport[3] - this.mouseY - 1, 0., modelview, 0, projection, 0, viewport, 0, uprjC, 0);			
@@ -731,23 +664,32 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			
 			double pos = uprjC[1] + 0.30;
 	
-			if (id >= 10) {
-				this.textures.get(id - 10).bind();
-				this.textures.get(id - 10).enable();
+			// A blank square until the icons are loaded
+			if (id >= SkyRenderer.MESSIER_ID_OFFSET && this.icons.isUploaded() && this.icons.contains(id)) {
+				final float u0 = this.icons.getU0(id), v0 = this.icons.getV0(id);
+				final float u1 = this.icons.getU1(id), v1 = this.icons.getV1(id);
+				this.icons.bind();
+				this.icons.enable();
 				
 				gl.glBegin(GL2.GL_QUADS);
-					gl.glTexCoord2d(0, 0);
+					gl.glTexCoord2f(u0, v0);
 					gl.glVertex2d(uprjC[0] - 0.35f, uprjC[1] - 0.35f);
-					gl.glTexCoord2d(1, 0);
+					gl.glTexCoord2f(u1, v0);
 					gl.glVertex2d(uprjC[0] - 0.35f, uprjC[1] + 0.35f);
-					gl.glTexCoord2d(1, 1);
+					gl.glTexCoord2f(u1, v1);
 					gl.glVertex2d(uprjC[0] + .35f, uprjC[1] + .35f);
-					gl.glTexCoord2d(0, 1);
+					gl.glTexCoord2f(u0, v1);
 					gl.glVertex2d(uprjC[0] + 0.35f, uprjC[1] - 0.35f);
 				gl.glEnd();
 		
-				this.textures.get(id - 10).disable();
+				this.icons.disable();
+			}
+			else if (id >= SkyRenderer.MESSIER_ID_OFFSET) {
+				gl.glColor3f(0.2f, 0.2f, 0.2f);
+				gl.glRectd(uprjC[0] - 0.35f, uprjC[1] - 0.35f, uprjC[0] + 0.35f, uprjC[1] + 0.35f);
+			}
 				
+			if (id >= SkyRenderer.MESSIER_ID_OFFSET) {
 				gl.glColor3f(0, 0.8f, 0);
 				gl.glBegin(GL2.GL_LINE_LOOP);
 					gl.glVertex2d(uprjC[0] - 0.355f, uprjC[1] - 0.355f);
@@ -757,8 +699,8 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 				gl.glEnd();
 			}
 						
-			if (id < 10) {
-				ObjectData o = this.ppm.getPInfo().getObjects().get(id);
+			if (id < SkyRenderer.MESSIER_ID_OFFSET) {
+				SkySnapshot.Body o = this.snapshot.getBody(id);
 						
 				// Set a small viewport in the upper right corner of the window to display the rotating solar system object and info
 				gl.glViewport(this.wW/2, this.wH/2, this.wW/2, this.wH/2);
@@ -794,9 +736,8 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 					           
 				glu.gluLookAt (5.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f);
 				
-				GLUquadric sphere = glu.gluNewQuadric();			
-				GLUquadric disk = glu.gluNewQuadric();				
-		        glu.gluQuadricTexture(sphere, true);
+				// Diameter of the sphere in pixels, seen from 5 units with a 38 degrees field of view
+				final int pixels = (int) (2 * MainFrame.PLANET_RADIUS / (10 * Math.tan(Math.toRadians(19))) * this.wH / 2);
 	
 		        gl.glPushMatrix();
 			        gl.glRotated(angle++, 0,1,0);
@@ -804,17 +745,20 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			        if (id == 6)
 			        	gl.glRotated(20, 1,0,0);
 		            	        
-			        TextureHandler tex = texturesSSMap.get(id);
-					tex.bind();
-					tex.enable();
+			        // Drawn untextured until the map is decoded
+			        ManagedTexture tex = this.textureManager.get("images/" + MainFrame.SS_NAMES[id] + "_map.jpg");
+			        final boolean textured = tex.bind(gl, glu);
+			        if (textured)
+			        	tex.enable();
 		
-					glu.gluSphere(sphere, 0.5, 64, 64);			
+					this.planet.drawSphere(gl, pixels);
 					
-					tex.disable();
+					if (textured)
+						tex.disable();
 					
 					if (id == 6) {
 						gl.glRotated(20, 1,0,0);
-						glu.gluDisk(disk ,0.7f, 1.1f, 32, 32);
+						this.planet.drawRing(gl, pixels);
 					}
 					
 					gl.glDisable(GL.GL_DEPTH_TEST);				
@@ -855,118 +799,155 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 				gl.glViewport(this.wX, this.wY, this.wW, this.wH);
 				
 			} else {
-				MessierData o = this.ppm.getMessData().get(id - 10);
+				// Drawn from the snapshot, the map belongs to the compute thread
+				final SkySnapshot.Points messier = this.snapshot.getMessier();
+				final int index = id - SkyRenderer.MESSIER_ID_OFFSET;
 	
 				gl.glRasterPos2d(uprjC[0] - 0.30f, pos);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, "Obiect: " + o.getName());
+				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, "Obiect: " + messier.getName(index));
 				pos -= 0.05;
 				gl.glRasterPos2d(uprjC[0] - 0.30f, pos);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Magnitudine ap.: " + df.format(o.getMagnitude()));
+				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Magnitudine ap.: " + df.format(messier.getMag(index)));
 				pos -= 0.05;
 				gl.glRasterPos2d(uprjC[0] - 0.30f, pos);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Ascensie Dr.: " + df.format(o.getRA()) + " h ");
+				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Ascensie Dr.: " + df.format(PolarProjectionMap.radiansToRa(messier.getRA(index))) + " h ");
 				pos -= 0.05;
 				gl.glRasterPos2d(uprjC[0] - 0.30f, pos);
-				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Declinatie: " + df.format(o.getDec()) + " * ");
+				glut.glutBitmapString(GLUT.BITMAP_HELVETICA_10, " Declinatie: " + df.format(messier.getDec(index) / PolarProjectionMap.RADS) + " * ");
 			}
 		gl.glPopMatrix();
 	}
 	
 	/**
-	 * This method is responsible for handling the picking
+	 * This method is responsible for handling the picking. The object under
+	 * the mouse is looked up in the grids of the snapshot being shown, the
+	 * nearest one winning, so nothing needs to be drawn.
 	 * 
-	 * @param gl
 	 * @param x
 	 *            the screen X coordinate
 	 * @param y
 	 *            the screen Y coordinate
+	 * @param stars
+	 *            whether the stars can be picked too
+	 * @return the id of the object or -1 if there is none
 	 */
-	private void pickHandle(GL2 gl, int x, int y) {
-		// Calculate the select buffer capacity and allocate data if necessary
-		final int bufferSize = 10;
-		final int capacity = Buffers.SIZEOF_INT * bufferSize;
-		IntBuffer selectBuffer = Buffers.newDirectIntBuffer(capacity);
-
-		// Send the select buffer to (J)OGL and use select mode to track object hits.
-		gl.glSelectBuffer(selectBuffer.capacity(), selectBuffer);
-
-		gl.glRenderMode(GL2.GL_SELECT);
-
-		// Initialize the name stack.
-		gl.glInitNames();
-
-		// Get the viewport.
-		int[] viewport = new int[4];
-		gl.glGetIntegerv(GL.GL_VIEWPORT, viewport, 0);
-		// Get the projection matrix.
-		float[] projection = new float[16];
-		gl.glGetFloatv(GL2.GL_PROJECTION_MATRIX, projection, 0);
-
-		// Switch to the projection matrix mode.
-		gl.glMatrixMode(GL2.GL_PROJECTION);
-		// Save the current projection matrix.
-		gl.glPushMatrix();
-		// Reset the projection matrix.
-		gl.glLoadIdentity();
-
-		// Restrict region to pick object only in this region.
-		glu.gluPickMatrix(x, viewport[3] - y, 1, 1, viewport, 0);
-
-		// Load the projection matrix
-		gl.glMultMatrixf(projection, 0);
-
-		// Or redefine the perspective again.
-		// glu.gluPerspective ( 38, (float) screenWidth / (float) screenHeight,
-		// 0.1, 100 );
+	private int pick(int x, int y, boolean stars) {
+		final SkySnapshot sky = this.snapshot;
+		if (sky == null || this.wW == 0 || this.wH == 0)
+			return -1;
+
+		final double width = this.getViewWidth(), height = this.getViewHeight();
+		// From the window to the map, undoing the translation and the scaling
+		final double worldX = -v_size + (x + 0.5) * width / this.wW;
+		final double worldY = -v_size + (this.wH - y - 0.5) * height / this.wH;
+		final float mapX = (float) ((worldX - this.posX) / this.scaleX);
+		final float mapY = (float) ((worldY - this.posY) / this.scaleY);
+		final float tolerance = (float) (MainFrame.PICK_PIXELS * width / this.wW / this.scaleX);
+
+		int found = -1;
+		float best = Float.MAX_VALUE, distance, radius;
+
+		for (int j = 0; j < sky.getBodyCount(); j++) {
+			final SkySnapshot.Body o = sky.getBody(j);
+			radius = Math.max(SkyRenderer.BODY_SIZE, tolerance);
+			distance = (float) Math.hypot(o.getXpp() - mapX, o.getYpp() - mapY);
+			if (o.isVisiblePP() && distance <= radius && distance < best) {
+				best = distance;
+				found = j;
+			}
+		}
 
-		// Go back to modelview matrix for rendering.
-		gl.glMatrixMode(GL2.GL_MODELVIEW);
+		final SkySnapshot.Points messier = sky.getMessier();
+		final int m = messier.nearest(mapX, mapY, Math.max(SkyRenderer.MESSIER_SIZE, tolerance));
+		if (m != -1) {
+			distance = (float) Math.hypot(messier.getX(m) - mapX, messier.getY(m) - mapY);
+			if (distance < best) {
+				best = distance;
+				found = m + SkyRenderer.MESSIER_ID_OFFSET;
+			}
+		}
 
-		// Render the scene. Note we are in GL_SELECT mode now.
-		this.drawScene(gl);
+		if (stars && found == -1) {
+			final int s = sky.getStars().nearest(mapX, mapY, tolerance);
+			if (s != -1)
+				found = s + MainFrame.STAR_ID_OFFSET;
+		}
+		return found;
+	}
 
-		gl.glMatrixMode(GL2.GL_PROJECTION);
-		// Restore the saved projection matrix.
-		gl.glPopMatrix();
+	/**
+	 * Returns the width of the view volume set in reshape()
+	 */
+	private double getViewWidth() {
+		final double ratio = (double) this.wW / this.wH;
+		return (ratio < 1) ? 2 * v_size : v_size * (1 + ratio);
+	}
 
-		// Select the modelview matrix.
-		gl.glMatrixMode(GL2.GL_MODELVIEW);
+	/**
+	 * Returns the height of the view volume set in reshape()
+	 */
+	private double getViewHeight() {
+		final double ratio = (double) this.wW / this.wH;
+		return (ratio < 1) ? v_size * (1 + 1 / ratio) : 2 * v_size;
+	}
 
-		// Return to GL_RENDER mode.
-		final int hits = gl.glRenderMode(GL2.GL_RENDER);
-		mode = GL2.GL_RENDER;
+	/**
+	 * Gives the renderer the rectangle of the map seen in the window, undoing
+	 * the translation and the scaling
+	 */
+	private void setRendererView() {
+		final double pixelWidth = this.getViewWidth() / this.wW / this.scaleX;
+		final double pixelHeight = this.getViewHeight() / this.wH / this.scaleY;
+		final double minX = (-v_size - this.posX) / this.scaleX - MainFrame.CULL_PIXELS * pixelWidth;
+		final double minY = (-v_size - this.posY) / this.scaleY - MainFrame.CULL_PIXELS * pixelHeight;
+		this.renderer.setView((float) minX, (float) minY,
+				(float) (minX + (this.wW + 2 * MainFrame.CULL_PIXELS) * pixelWidth),
+				(float) (minY + (this.wH + 2 * MainFrame.CULL_PIXELS) * pixelHeight));
+	}
 
-		// Process the hits.
-		processHits(gl, hits, selectBuffer);
+	/**
+	 * Starts a batch of labels placed in map coordinates, which keep their
+	 * size in pixels whatever the zoom
+	 */
+	private void beginLabels(TextRenderer text) {
+		text.begin((-v_size - this.posX) / this.scaleX, (-v_size - this.posY) / this.scaleY,
+				this.getViewWidth() / this.wW / this.scaleX, this.getViewHeight() / this.wH / this.scaleY);
 	}
 
 	/**
-	 * This method is responsible for processing the hits. Retrieved from:
-	 * http://user.cs.tu-berlin.de/~schabby/PickingExample.java
+	 * Writes the name of the object under the mouse next to it
 	 * 
 	 * @param gl
-	 * @param hits
-	 * @param buffer
+	 * @param id
 	 */
-	private void processHits(GL gl, int hits, IntBuffer buffer) {
-		int offset = 0;
-		int names;
-		float z1, z2;
-
-		for (int i = 0; i < hits; i++) {
-			names = buffer.get(offset);
-			offset++;
-			z1 = (float) buffer.get(offset) / 0x7fffffff;
-			offset++;
-			z2 = (float) buffer.get(offset) / 0x7fffffff;
-			offset++;
-			
-			for (int j = 0; j < names; j++) {
-				this.idToShow = buffer.get(offset);
-				this.showInfo = true;
-				offset++;
-			}
+	private void showTooltip(GL2 gl, int id) {
+		final SkySnapshot sky = this.snapshot;
+		final DecimalFormat df = new DecimalFormat("###.##");
+		double x, y;
+		String text;
+
+		if (id >= MainFrame.STAR_ID_OFFSET) {
+			final SkySnapshot.Points stars = sky.getStars();
+			final int j = id - MainFrame.STAR_ID_OFFSET;
+			x = stars.getX(j);
+			y = stars.getY(j);
+			text = stars.getName(j) + " (mag. " + df.format(stars.getMag(j)) + ")";
+		} else if (id >= SkyRenderer.MESSIER_ID_OFFSET) {
+			final SkySnapshot.Points messier = sky.getMessier();
+			final int j = id - SkyRenderer.MESSIER_ID_OFFSET;
+			x = messier.getX(j);
+			y = messier.getY(j);
+			text = messier.getName(j) + " (mag. " + df.format(messier.getMag(j)) + ")";
+		} else {
+			final SkySnapshot.Body o = sky.getBody(id);
+			x = o.getXpp();
+			y = o.getYpp();
+			text = o.getName() + " (mag. " + df.format(o.getMagnitude()) + ")";
 		}
+			
+		this.beginLabels(this.hud);
+		this.hud.add(text, x + 0.02 / this.scaleX, y - 0.03 / this.scaleY, 1.0f, 1.0f, 0.6f);
+		this.hud.draw(gl);
 	}
 
 	@Override
@@ -1001,18 +982,29 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 				this.scaleX += 0.05;
 				this.scaleY += 0.05;
 				this.scaleZ += 0.05;
+				this.updateMapRadius();
 			}
 		}
 		
 		if (event.getKeyCode() == KeyEvent.VK_H) {
 			this.showAllNames = !this.showAllNames;
+			this.layout.invalidate();
 		}		
 
+		if (event.getKeyCode() == KeyEvent.VK_G) {
+			// Project the stars and lines on the GPU or on the CPU
+			this.shaderProjection = !this.shaderProjection;
+			this.renderer.setShaderProjection(this.shaderProjection);
+			// The map stops projecting what the shaders project
+			this.sky.setShaderProjection(this.renderer.isShaderProjection());
+		}
+
 		if (event.getKeyCode() == KeyEvent.VK_O) {
 			if (this.scaleX > 0.5) {
 				this.scaleX -= 0.05;
 				this.scaleY -= 0.05;
 				this.scaleZ -= 0.05;
+				this.updateMapRadius();
 			}
 		}
 
@@ -1024,14 +1016,18 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 			this.posY = 0;
 			this.posZ = 0;
 			this.reset = true;
+			this.sky.setRealTime();
+			this.updateMapRadius();
 		}
 		
 		if (event.getKeyCode() == 46){ // >
+			if (this.reset == true)
+				this.initTime();
 			this.reset = false;
-			double hour = this.ppm.getDate().getHour();
-			int day = this.ppm.getDate().getDay();
-			int month = this.ppm.getDate().getMonth();
-			int year = this.ppm.getDate().getYear();
+			double hour = this.hour;
+			int day = this.day;
+			int month = this.month;
+			int year = this.year;
 			hour += 1;
 			if (hour > 24 ) {
 				day += 1;
@@ -1072,15 +1068,17 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 					break;
 				}
 			}
-			this.ppm.update(hour, day, month, year);
+			this.setTime(hour, day, month, year);
 		}
 
 		if (event.getKeyCode() == 44){ // <
+			if (this.reset == true)
+				this.initTime();
 			this.reset = false;
-			double hour = this.ppm.getDate().getHour();
-			int day = this.ppm.getDate().getDay();
-			int month = this.ppm.getDate().getMonth();
-			int year = this.ppm.getDate().getYear();
+			double hour = this.hour;
+			int day = this.day;
+			int month = this.month;
+			int year = this.year;
 			hour -= 1;
 			if (hour < 0 ) {
 				day -= 1;
@@ -1121,9 +1119,33 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 					break;
 				}
 			}
-			this.ppm.update(hour, day, month, year);		
+			this.setTime(hour, day, month, year);
 		}
 
+		this.renderLoop.requestRender();
+	}
+
+	/**
+	 * Starts stepping the time from the one currently shown
+	 */
+	private void initTime() {
+		final Date date = this.sky.getSnapshot().getDate();
+		this.hour = date.getHour();
+		this.day = date.getDay();
+		this.month = date.getMonth();
+		this.year = date.getYear();
+	}
+
+	/**
+	 * Asks for the sky at the given time. It is shown as soon as it is
+	 * computed.
+	 */
+	private void setTime(double hour, int day, int month, int year) {
+		this.hour = hour;
+		this.day = day;
+		this.month = month;
+		this.year = year;
+		this.sky.setTime(hour, day, month, year);
 	}
 
 	@Override
@@ -1160,18 +1182,55 @@ public class MainFrame extends JFrame implements GLEventListener, KeyListener, M
 	public void mousePressed(MouseEvent me) {
 		mouseX = (int)(me.getX() * dpiScalingFactor);
 		mouseY = (int)(me.getY() * dpiScalingFactor);
-		mode = GL2.GL_SELECT;
+		final int id = this.pick(mouseX, mouseY, false);
+		if (id != -1) {
+			this.idToShow = id;
+			this.showInfo = true;
+			// The Solar System objects spin
+			this.renderLoop.setAnimating(id < SkyRenderer.MESSIER_ID_OFFSET);
+			this.renderLoop.requestRender();
+		}
 	}
 
 	@Override
 	public void mouseReleased(MouseEvent arg0) {
-		// TODO Auto-generated method stub
 		this.showInfo = false;
+		this.renderLoop.setAnimating(false);
+		this.renderLoop.requestRender();
 	}
 
 	@Override
-	public void dispose(GLAutoDrawable arg0) {
-		// TODO Auto-generated method stub
-		
+	public void mouseMoved(MouseEvent me) {
+		final int id = this.pick((int)(me.getX() * dpiScalingFactor), (int)(me.getY() * dpiScalingFactor), true);
+		if (id != this.idHovered) {
+			this.idHovered = id;
+			this.renderLoop.requestRender();
+		}
+	}
+
+	@Override
+	public void mouseDragged(MouseEvent me) {
+		if (this.idHovered != -1) {
+			this.idHovered = -1;
+			this.renderLoop.requestRender();
+		}
+	}
+
+	@Override
+	public void dispose(GLAutoDrawable canvas) {
+		// Nothing is drawn nor computed once the resources are released
+		this.renderLoop.shutdown();
+		this.sky.shutdown();
+		this.renderer.dispose(canvas.getGL().getGL2());
+		this.labels.dispose(canvas.getGL().getGL2());
+		this.cardinals.dispose(canvas.getGL().getGL2());
+		this.hud.dispose(canvas.getGL().getGL2());
+		this.planet.dispose(canvas.getGL().getGL2());
+		this.skyLayer.dispose(canvas.getGL().getGL2());
+		this.icons.delete();
+		this.textureManager.delete();
+		this.textureManager.shutdown();
+		if (this.textureCache != null)
+			this.textureCache.close();
 	}
 }
@@ -0,0 +1,199 @@
+package astro;
+
+import astro.util.Date;
+
+/**
+ * The model of each Solar System object, in the order of
+ * {@link SolarSystemInfo#getObjects()}: the orbital elements as polynomials
+ * of the day number, the perturbations of the heliocentric longitude and
+ * latitude, and the coefficients of the magnitude and of the apparent
+ * diameter. The objects are then computed from tables, without looking at
+ * their names.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+enum BodyModel {
+
+	SUN("Soare",
+			new double[] { 0, 0, 0, 0, 282.9404, 0.0000470935, 1, 0, 0.016709, -0.000000001151, 356.047, 0.9856002585 },
+			null, null, null, 0, false),
+	MERCURY("Mercur",
+			new double[] { 48.3313, 0.0000324587, 7.0047, 0.00000005, 29.1241, 0.0000101444, 0.387098, 0.0000000000180698, 0.205635, 0.000000000559, 168.6562, 4.0923344368 },
+			null, null, new double[] { -0.36, 0.027, 0.00000000000022, 6 }, 6.74, false),
+	VENUS("Venus",
+			new double[] { 76.6799, 0.000024659, 3.3946, 0.0000000275, 54.891, 0.0000138374, 0.72333, 0.0000000000251882, 0.006773, -0.000000001302, 48.0052, 1.60213022448 },
+			null, null, new double[] { -4.34, 0.013, 0.00000042, 3 }, 16.92, false),
+	MOON("Luna",
+			new double[] { 125.1228, -0.0529538083, 5.1454, 0, 318.0634, 0.1643573223, 60.2666, 0, 0.054900, 0, 115.3654, 13.06499295098 },
+			null, null, null, 0, false),
+	MARS("Marte",
+			new double[] { 49.5574, 0.0000211081, 1.8497, -0.0000000178, 286.5016, 0.0000292961, 1.523688, -0.000000001977, 0.093405, 0.000000002516, 18.6021, 0.5240207766 },
+			null, null, new double[] { -1.51, 0.016, 0, 0 }, 9.362, false),
+	JUPITER("Jupiter",
+			new double[] { 100.4542, 0.0000276854, 1.303, -0.0000001557, 273.8777, 0.0000164505, 5.20256, 0.0000000166289, 0.048498, 0.000000004469, 19.895, 0.0830853001 },
+			new double[][] {
+				{ -0.332, BodyModel.SIN, 0, -5, 2, -67.6 },
+				{ -0.056, BodyModel.SIN, 0, -2, 2, 21 },
+				{ 0.042, BodyModel.SIN, 0, -5, 3, 21 },
+				{ -0.036, BodyModel.SIN, 0, -2, 1, 0 },
+				{ 0.022, BodyModel.COS, 0, -1, 1, 0 },
+				{ 0.023, BodyModel.SIN, 0, -3, 2, 52 },
+				{ -0.016, BodyModel.SIN, 0, -5, 1, -69 } },
+			null, new double[] { -9.25, 0.014, 0, 0 }, 196.9, false),
+	SATURN("Saturn",
+			new double[] { 113.6634, 0.000023898, 2.4886, -0.0000001081, 339.3939, 0.0000297661, 9.55475, -0.00000008255439999999999, 0.055546, -0.000000009499, 316.967, 0.0334442282 },
+			new double[][] {
+				{ 0.812, BodyModel.SIN, 2, 0, -5, -67.6 },
+				{ -0.229, BodyModel.COS, 2, 0, -4, -2 },
+				{ 0.119, BodyModel.SIN, 1, 0, -2, -3 },
+				{ 0.046, BodyModel.SIN, 2, 0, -6, -69 },
+				{ 0.014, BodyModel.SIN, 1, 0, -3, 32 } },
+			new double[][] {
+				{ -0.020, BodyModel.COS, 2, -4, 0, -2 },
+				{ 0.018, BodyModel.SIN, 2, -6, 0, -49 } },
+			new double[] { -9, 0.044, 0, 0 }, 165.6, true),
+	URANUS("Uranus",
+			new double[] { 74.0005, 0.000013978, 0.7733, 0.000000019, 96.6612, 0.000030565, 19.18171, 0.0000000416222, 0.047318, 0.00000000745, 142.5905, 0.011725806 },
+			new double[][] {
+				{ 0.040, BodyModel.SIN, 0, 1, -2, 6 },
+				{ 0.035, BodyModel.SIN, 0, 1, -3, 33 },
+				{ -0.015, BodyModel.SIN, 1, 0, -1, 20 } },
+			null, new double[] { -7.15, 0.001, 0, 0 }, 65.8, false),
+	NEPTUNE("Neptun",
+			new double[] { 131.7806, 0.000030173, 1.77, -0.000000255, 272.8461, -0.000006027, 30.05826, -0.0000000342768, 0.008606, 0.00000000215, 260.2471, 0.005995147 },
+			null, null, new double[] { -6.9, 0.001, 0, 0 }, 62.2, false);
+
+	// The indexes of the orbital elements
+	static final int N = 0, I = 1, W = 2, A = 3, E = 4, M = 5;
+	// The functions of the perturbation terms
+	private static final int SIN = 0, COS = 1;
+	// The fields of a perturbation term: amplitude, function, multipliers of
+	// the mean anomalies of Jupiter, of Saturn and of the object, phase
+	private static final int AMPLITUDE = 0, FUNCTION = 1, MJ = 2, MS = 3, MO = 4, PHASE = 5;
+
+	// values() copies the array every time
+	static final BodyModel[] ALL = BodyModel.values();
+
+	private final String name;
+	// Value at day 0 and change per day of N, i, w (degrees),
+	// a (AU, Earth radii for the Moon), e and M (degrees)
+	private final double[] elements;
+	// Added to the heliocentric longitude and latitude, phases in radians
+	private final double[][] longitudeTerms, latitudeTerms;
+	// Magnitude: base, phase coefficient, coefficient and power of a
+	// second phase term
+	private final double[] magnitude;
+	// Apparent diameter at 1 AU
+	private final double diameter;
+	private final boolean ring;
+
+	private BodyModel(String name, double[] elements, double[][] longitudeTerms,
+			double[][] latitudeTerms, double[] magnitude, double diameter, boolean ring) {
+		this.name = name;
+		this.elements = elements;
+		this.longitudeTerms = BodyModel.toRadians(longitudeTerms);
+		this.latitudeTerms = BodyModel.toRadians(latitudeTerms);
+		this.magnitude = magnitude;
+		this.diameter = diameter;
+		this.ring = ring;
+	}
+
+	private static double[][] toRadians(double[][] terms) {
+		if (terms == null)
+			return new double[0][];
+		for (double[] term : terms)
+			term[BodyModel.PHASE] = term[BodyModel.PHASE] * Math.PI / 180;
+		return terms;
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns an orbital element at the given day, the angles in radians
+	 *
+	 * @param element
+	 *            one of N, I, W, A, E, M
+	 */
+	double getElement(int element, double dayNumber) {
+		final double value = this.elements[2 * element] + this.elements[2 * element + 1] * dayNumber;
+		// The semi-major axis and the eccentricity are not angles
+		if (element == BodyModel.A || element == BodyModel.E)
+			return value;
+		return Date.rev(value) * Math.PI / 180;
+	}
+
+	/**
+	 * Returns true if the heliocentric position has perturbation terms
+	 */
+	boolean isPerturbed() {
+		return this.longitudeTerms.length > 0 || this.latitudeTerms.length > 0;
+	}
+
+	/**
+	 * Returns the heliocentric longitude corrected by the perturbations
+	 *
+	 * @param mj
+	 *            the mean anomaly of Jupiter
+	 * @param ms
+	 *            the mean anomaly of Saturn
+	 * @param m
+	 *            the mean anomaly of the object
+	 */
+	double perturbLongitude(double longitude, double mj, double ms, double m) {
+		return BodyModel.perturb(this.longitudeTerms, longitude, mj, ms, m);
+	}
+
+	/**
+	 * Returns the heliocentric latitude corrected by the perturbations
+	 */
+	double perturbLatitude(double latitude, double mj, double ms, double m) {
+		return BodyModel.perturb(this.latitudeTerms, latitude, mj, ms, m);
+	}
+
+	private static double perturb(double[][] terms, double value, double mj, double ms, double m) {
+		double[] term;
+		double argument;
+		for (int t = 0; t < terms.length; t++) {
+			term = terms[t];
+			argument = term[BodyModel.MJ] * mj + term[BodyModel.MS] * ms
+					+ term[BodyModel.MO] * m + term[BodyModel.PHASE];
+			value += term[BodyModel.AMPLITUDE]
+					* (term[BodyModel.FUNCTION] == BodyModel.COS ? Math.cos(argument) : Math.sin(argument));
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the magnitude, without the rings
+	 *
+	 * @param distances
+	 *            the product of the heliocentric and geocentric distances
+	 * @param fv
+	 *            the phase angle
+	 */
+	double getMagnitude(double distances, double fv) {
+		double magnitude = this.magnitude[0] + 5 * Math.log(distances) / Math.log(10)
+				+ this.magnitude[1] * fv;
+		if (this.magnitude[2] != 0)
+			magnitude += this.magnitude[2] * Math.pow(fv, this.magnitude[3]);
+		return magnitude;
+	}
+
+	/**
+	 * Returns the apparent diameter at a geocentric distance
+	 */
+	double getAppDiameter(double rg) {
+		return this.diameter / rg;
+	}
+
+	/**
+	 * Returns true if the magnitude depends on the rings
+	 */
+	boolean hasRing() {
+		return this.ring;
+	}
+}
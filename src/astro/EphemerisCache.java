@@ -0,0 +1,199 @@
+package astro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Geocentric positions of the Solar System objects over long time ranges,
+ * e.g. for an animation or an almanac. The models of {@link SolarSystemInfo}
+ * are evaluated at the Chebyshev nodes of fixed intervals of days and the
+ * equatorial rectangular coordinates are fitted by Chebyshev polynomials,
+ * so a query only sums a few terms instead of solving Kepler's equation.
+ *
+ * The intervals are fitted the first time they are needed and the most
+ * recently used ones are kept, up to a bound. The positions are geocentric:
+ * the topocentric correction of the Moon depends on the sidereal time and
+ * is not fitted.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class EphemerisCache {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	// The Moon moves 13 degrees a day, the planets at most 4
+	private static final double MOON_INTERVAL = 8, PLANET_INTERVAL = 32;
+	// Number of coefficients of each coordinate, for errors well below
+	// those of the models themselves
+	private static final int MOON_TERMS = 16, PLANET_TERMS = 12;
+
+	/**
+	 * The polynomials of an object over an interval of days
+	 */
+	private static class Segment {
+		final double start, length;
+		final double[] x, y, z;
+
+		Segment(double start, double length, int terms) {
+			this.start = start;
+			this.length = length;
+			this.x = new double[terms];
+			this.y = new double[terms];
+			this.z = new double[terms];
+		}
+	}
+
+	// Only used to fit the segments, the time of day does not matter
+	private final SolarSystemInfo models = new SolarSystemInfo(0, 0, 0);
+	private final ObjectData[] bodies;
+	private final Map<Long, Segment> segments;
+	// Values at the nodes, reused by every fit
+	private final double[] nodeX = new double[EphemerisCache.MOON_TERMS];
+	private final double[] nodeY = new double[EphemerisCache.MOON_TERMS];
+	private final double[] nodeZ = new double[EphemerisCache.MOON_TERMS];
+	private long fits = 0;
+
+	public EphemerisCache() {
+		this(EphemerisCache.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            the number of segments kept, one segment covering one object
+	 *            over 8 (the Moon) or 32 days
+	 */
+	public EphemerisCache(final int capacity) {
+		this.bodies = this.models.getObjects().toArray(new ObjectData[0]);
+		this.segments = new LinkedHashMap<Long, Segment>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Segment> eldest) {
+				return this.size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of objects, in the order of
+	 * {@link SolarSystemInfo#getObjects()}
+	 */
+	public int getBodyCount() {
+		return this.bodies.length;
+	}
+
+	/**
+	 * Computes the geocentric position of an object
+	 *
+	 * @param body
+	 *            the index of the object in the order of
+	 *            {@link SolarSystemInfo#getObjects()}
+	 * @param dayNumber
+	 *            the day number, as given by {@link astro.util.Date}
+	 * @param position
+	 *            receives the right ascension and the declination in radians
+	 *            and the distance, in AU or in Earth radii for the Moon
+	 * @return the position array
+	 */
+	public synchronized double[] getPosition(int body, double dayNumber, double[] position) {
+		final double length = BodyModel.ALL[body] == BodyModel.MOON ?
+				EphemerisCache.MOON_INTERVAL : EphemerisCache.PLANET_INTERVAL;
+		final long index = (long) Math.floor(dayNumber / length);
+		final Long key = Long.valueOf(index * this.bodies.length + body);
+
+		Segment segment = this.segments.get(key);
+		if (segment == null) {
+			segment = this.fit(body, index * length, length);
+			this.segments.put(key, segment);
+		}
+
+		final double t = 2 * (dayNumber - segment.start) / segment.length - 1;
+		final double x = EphemerisCache.evaluate(segment.x, t);
+		final double y = EphemerisCache.evaluate(segment.y, t);
+		final double z = EphemerisCache.evaluate(segment.z, t);
+		final double xy = Math.sqrt(x * x + y * y);
+
+		position[0] = Math.atan2(y, x);
+		if (position[0] < 0)
+			position[0] += 2 * Math.PI;
+		position[1] = Math.atan2(z, xy);
+		position[2] = Math.sqrt(xy * xy + z * z);
+		return position;
+	}
+
+	/**
+	 * Returns the number of segments fitted so far
+	 */
+	public synchronized long getFitCount() {
+		return this.fits;
+	}
+
+	/**
+	 * Drops every segment
+	 */
+	public synchronized void clear() {
+		this.segments.clear();
+	}
+
+	/**
+	 * Fits the rectangular coordinates, rather than the angles, which would
+	 * wrap around
+	 */
+	private Segment fit(int body, double start, double length) {
+		final int terms = BodyModel.ALL[body] == BodyModel.MOON ?
+				EphemerisCache.MOON_TERMS : EphemerisCache.PLANET_TERMS;
+		final Segment segment = new Segment(start, length, terms);
+		final ObjectData object = this.bodies[body];
+		double angle, RA, Dec, distance;
+
+		for (int j = 0; j < terms; j++) {
+			angle = Math.PI * (j + 0.5) / terms;
+			this.models.updatePosition(body, start + (Math.cos(angle) + 1) * length / 2);
+			if (object instanceof MoonData) {
+				RA = ((MoonData) object).geoRA;
+				Dec = ((MoonData) object).geoDec;
+			} else {
+				RA = object.getRA();
+				Dec = object.getDec();
+			}
+			distance = (object instanceof SunData) ? ((SunData) object).getRs() : object.getRg();
+			this.nodeX[j] = distance * Math.cos(Dec) * Math.cos(RA);
+			this.nodeY[j] = distance * Math.cos(Dec) * Math.sin(RA);
+			this.nodeZ[j] = distance * Math.sin(Dec);
+		}
+
+		double cos;
+		for (int k = 0; k < terms; k++) {
+			for (int j = 0; j < terms; j++) {
+				cos = Math.cos(Math.PI * k * (j + 0.5) / terms);
+				segment.x[k] += this.nodeX[j] * cos;
+				segment.y[k] += this.nodeY[j] * cos;
+				segment.z[k] += this.nodeZ[j] * cos;
+			}
+			// The first coefficient counts half
+			cos = (k == 0 ? 1.0 : 2.0) / terms;
+			segment.x[k] *= cos;
+			segment.y[k] *= cos;
+			segment.z[k] *= cos;
+		}
+		this.fits++;
+		return segment;
+	}
+
+	/**
+	 * Sums a Chebyshev series at t in [-1, 1] by Clenshaw's recurrence
+	 */
+	private static double evaluate(double[] c, double t) {
+		double b1 = 0, b2 = 0, b;
+		for (int k = c.length - 1; k > 0; k--) {
+			b = 2 * t * b1 - b2 + c[k];
+			b2 = b1;
+			b1 = b;
+		}
+		return t * b1 - b2 + c[0];
+	}
+}
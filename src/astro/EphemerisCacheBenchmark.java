@@ -0,0 +1,120 @@
+package astro;
+
+import java.util.Random;
+
+/**
+ * Compares the positions of {@link EphemerisCache} with those computed
+ * directly by {@link SolarSystemInfo} at random dates, and measures the cost
+ * of a query, of fitting a segment and of a direct update. To be run again
+ * when the models, the lengths of the segments or their numbers of terms
+ * change.
+ *
+ * Usage: java astro.EphemerisCacheBenchmark [dates]
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class EphemerisCacheBenchmark {
+
+	private static final int DEFAULT_DATES = 20000;
+	// The dates sampled, from 1900 to 2100
+	private static final double FIRST_DAY = -36524, LAST_DAY = 36525;
+	private static final double ARCSEC = 180 * 3600 / Math.PI;
+
+	public static void main(String args[]) {
+		final int dates = args.length > 0 ? Integer.parseInt(args[0]) : EphemerisCacheBenchmark.DEFAULT_DATES;
+		final Random random = new Random(1);
+		final double[] days = new double[dates];
+		for (int d = 0; d < dates; d++)
+			days[d] = EphemerisCacheBenchmark.FIRST_DAY + random.nextDouble()
+					* (EphemerisCacheBenchmark.LAST_DAY - EphemerisCacheBenchmark.FIRST_DAY);
+
+		final EphemerisCache cache = new EphemerisCache();
+		final SolarSystemInfo info = new SolarSystemInfo(0, 0, 0);
+		final int bodies = cache.getBodyCount();
+		final double[] angle = new double[bodies], distance = new double[bodies];
+		final double[] position = new double[3];
+		ObjectData object;
+		double RA, Dec, range;
+
+		for (int d = 0; d < dates; d++) {
+			info.update(days[d], 0);
+			for (int b = 0; b < bodies; b++) {
+				object = info.getObjects().get(b);
+				if (object instanceof MoonData) {
+					RA = ((MoonData) object).geoRA;
+					Dec = ((MoonData) object).geoDec;
+				} else {
+					RA = object.getRA();
+					Dec = object.getDec();
+				}
+				range = (object instanceof SunData) ? ((SunData) object).getRs() : object.getRg();
+
+				cache.getPosition(b, days[d], position);
+				angle[b] = Math.max(angle[b], EphemerisCacheBenchmark.separation(RA, Dec, position[0], position[1]));
+				distance[b] = Math.max(distance[b], Math.abs(range - position[2]) / range);
+			}
+		}
+
+		System.out.println("body        max error   max relative distance error");
+		for (int b = 0; b < bodies; b++)
+			System.out.println(String.format("%-10s %9.4f\" %12.3g", info.getObjects().get(b).getName(),
+					angle[b] * EphemerisCacheBenchmark.ARCSEC, distance[b]));
+
+		// Fitting: every query falls in a new segment
+		cache.clear();
+		long fits = cache.getFitCount();
+		long start = System.nanoTime();
+		for (int d = 0; d < dates; d++)
+			cache.getPosition(d % bodies, days[d], position);
+		final double perFit = (System.nanoTime() - start) / 1000.0 / (cache.getFitCount() - fits);
+
+		// Querying: a slow animation, staying in the same segments
+		double sink = 0;
+		int rounds = 0;
+		long elapsed;
+		fits = cache.getFitCount();
+		start = System.nanoTime();
+		do {
+			for (int q = 0; q < 100000; q++) {
+				cache.getPosition(q % bodies, 1000 + rounds + q * 0.0001, position);
+				sink += position[0];
+			}
+			rounds++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < 1000000000L || rounds < 3);
+		final double perQuery = elapsed / 1000.0 / rounds / 100000;
+
+		rounds = 0;
+		start = System.nanoTime();
+		do {
+			info.update(1000 + rounds * 0.37, 0);
+			rounds++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < 1000000000L || rounds < 3);
+		final double perUpdate = elapsed / 1000.0 / rounds;
+
+		System.out.println();
+		System.out.println(String.format("fit of a segment          %9.2f us", perFit));
+		System.out.println(String.format("query of a cached segment %9.3f us", perQuery));
+		System.out.println(String.format("direct update of all      %9.2f us", perUpdate));
+
+		// Keeps the evaluations from being optimized away
+		if (sink == 0.5)
+			System.out.println();
+	}
+
+	/**
+	 * Returns the angle between two close directions, acos() being too
+	 * coarse for them
+	 */
+	private static double separation(double RA1, double Dec1, double RA2, double Dec2) {
+		double dRA = Math.abs(RA1 - RA2) % (2 * Math.PI);
+		if (dRA > Math.PI)
+			dRA = 2 * Math.PI - dRA;
+		dRA *= Math.cos(Dec1);
+		final double dDec = Dec1 - Dec2;
+		return Math.sqrt(dRA * dRA + dDec * dDec);
+	}
+}
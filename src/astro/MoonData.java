@@ -12,6 +12,8 @@ public class MoonData extends ObjectData {
 
 	SunData sun = null;
 	double lat, longitude, lst, lonMoon, latMoon;
+	// The geocentric position, before the topocentric correction
+	double geoRA, geoDec;
 
 	MoonData(String name, double N, double i, double w, double a, double e,
 			double M, final double dayNumber, SunData sun,
@@ -108,13 +110,15 @@ public class MoonData extends ObjectData {
 		final double zg = this.z;
 
 		final double xe = xg;
-		final double ye = yg * Math.cos(this.computeOblEcl(dayNumber)) - zg
-				* Math.sin(this.computeOblEcl(dayNumber));
-		final double ze = yg * Math.sin(this.computeOblEcl(dayNumber)) + zg
-				* Math.cos(this.computeOblEcl(dayNumber));
+		final double oblEcl = this.computeOblEcl(dayNumber);
+		final double cosOblEcl = Math.cos(oblEcl), sinOblEcl = Math.sin(oblEcl);
+		final double ye = yg * cosOblEcl - zg * sinOblEcl;
+		final double ze = yg * sinOblEcl + zg * cosOblEcl;
 
 		this.RA = Math.atan2(ye, xe);
 		this.Dec = Math.atan2(ze, Math.sqrt(xe * xe + ye * ye));
+		this.geoRA = this.RA;
+		this.geoDec = this.Dec;
 
 		// The previous computed position was the geocentric one.
 		// For the topocentric we need to take into account the flattening of
@@ -163,6 +167,18 @@ public class MoonData extends ObjectData {
 			this.update(dayNumber, latitude, longitude);
 		}
 
+	/**
+	 * Updates the Moon for another time and place. The sidereal time and the
+	 * latitude are needed for the topocentric position.
+	 */
+	public void update(double dayNumber, final double latitude,
+			final double longitude, final double lst, SunData sun) {
+		this.lat = latitude;
+		this.longitude = longitude;
+		this.lst = lst;
+		this.update(dayNumber, latitude, longitude, sun);
+	}
+
 	
 	@Override
 	protected void computeRiseSetTime(final double latitude,
@@ -27,6 +27,22 @@ public abstract class ObjectData {
 		this.timeDiff = timeDiff;
 	}
 
+	/**
+	 * Replaces the orbital elements, e.g. for another date. The position is
+	 * computed by the next update.
+	 */
+	void setElements(double N, double i, double w, double a, double e,
+			double M, final double dayNumber, final double timeDiff) {
+		this.N = N;
+		this.i = i;
+		this.w = w;
+		this.a = a;
+		this.e = e;
+		this.M = M;
+		this.dayNumber = dayNumber;
+		this.timeDiff = timeDiff;
+	}
+
 	/**
 	 * Computes the heliocentric position of an object.
 	 * @param dayNumber the day number
@@ -11,13 +11,16 @@ import astro.util.Date;
 public class PlanetData extends ObjectData {
 
 	SunData sun = null;
+	// The perturbations, magnitude and size of the planet
+	private final BodyModel model;
 
-	PlanetData(String name, double N, double i, double w, double a, double e,
+	PlanetData(BodyModel model, double N, double i, double w, double a, double e,
 			double M, final double dayNumber, final double latitude,
 			final double longitude, SunData sun, final double timeDiff) {
 
-		super(name, N, i, w, a, e, M, dayNumber, timeDiff);
+		super(model.getName(), N, i, w, a, e, M, dayNumber, timeDiff);
 
+		this.model = model;
 		this.sun = sun;
 
 		this.computePosition(dayNumber);
@@ -55,60 +58,13 @@ public class PlanetData extends ObjectData {
 		double latecl = Math.atan2(this.z, Math.sqrt(this.x * this.x + this.y
 				* this.y));
 
-		if (this.name.compareTo("Jupiter") == 0) {
-			final double Ms = Date.rev(316.967 + 0.0334442282 * dayNumber)
-					* Math.PI / 180;
-
-			lonecl = lonecl - 0.332
-					* Math.sin(2 * this.M - 5 * Ms - 67.6 * Math.PI / 180);
-			lonecl = lonecl - 0.056
-					* Math.sin(2 * this.M - 2 * Ms + 21 * Math.PI / 180);
-			lonecl = lonecl + 0.042
-					* Math.sin(3 * this.M - 5 * Ms + 21 * Math.PI / 180);
-			lonecl = lonecl - 0.036 * Math.sin(this.M - 2 * Ms);
-			lonecl = lonecl + 0.022 * Math.cos(this.M - Ms);
-			lonecl = lonecl + 0.023
-					* Math.sin(2 * this.M - 3 * Ms + 52 * Math.PI / 180);
-			lonecl = lonecl - 0.016
-					* Math.sin(this.M - 5 * Ms - 69 * Math.PI / 180);
+		if (this.model.isPerturbed()) {
+			// The mean anomalies of Jupiter and Saturn
+			final double Mj = BodyModel.JUPITER.getElement(BodyModel.M, dayNumber);
+			final double Ms = BodyModel.SATURN.getElement(BodyModel.M, dayNumber);
 
-		}
-
-		if (this.name.compareTo("Saturn") == 0) {
-			final double Mj = Date.rev(19.895 + 0.0830853001 * dayNumber)
-					* Math.PI / 180;
-			final double Ms = Date.rev(316.967 + 0.0334442282 * dayNumber)
-					* Math.PI / 180;
-
-			lonecl = lonecl + 0.812
-					* Math.sin(2 * Mj - 5 * this.M - 67.6 * Math.PI / 180);
-			lonecl = lonecl - 0.229
-					* Math.cos(2 * Mj - 4 * this.M - 2 * Math.PI / 180);
-			lonecl = lonecl + 0.119
-					* Math.sin(Mj - 2 * this.M - 3 * Math.PI / 180);
-			lonecl = lonecl + 0.046
-					* Math.sin(2 * Mj - 6 * this.M - 69 * Math.PI / 180);
-			lonecl = lonecl + 0.014
-					* Math.sin(Mj - 3 * this.M + 32 * Math.PI / 180);
-
-			latecl = latecl - 0.020
-					* Math.cos(2 * Mj - 4 * Ms - 2 * Math.PI / 180);
-			latecl = latecl + 0.018
-					* Math.sin(2 * Mj - 6 * Ms - 49 * Math.PI / 180);
-		}
-
-		if (this.name.compareTo("Uranus") == 0) {
-			final double Mj = Date.rev(19.895 + 0.0830853001 * dayNumber)
-					* Math.PI / 180;
-			final double Ms = Date.rev(316.967 + 0.0334442282 * dayNumber)
-					* Math.PI / 180;
-
-			lonecl = lonecl + 0.040
-					* Math.sin(Ms - 2 * this.M + 6 * Math.PI / 180);
-			lonecl = lonecl + 0.035
-					* Math.sin(Ms - 3 * this.M + 33 * Math.PI / 180);
-			lonecl = lonecl - 0.015
-					* Math.sin(Mj - this.M + 20 * Math.PI / 180);
+			lonecl = this.model.perturbLongitude(lonecl, Mj, Ms, this.M);
+			latecl = this.model.perturbLatitude(latecl, Mj, Ms, this.M);
 		}
 
 		this.x = r * Math.cos(lonecl) * Math.cos(latecl);
@@ -119,11 +75,11 @@ public class PlanetData extends ObjectData {
 		final double yg = this.y + sun.getYs();
 		final double zg = this.z;
 
+		final double oblEcl = this.computeOblEcl(dayNumber);
+		final double cosOblEcl = Math.cos(oblEcl), sinOblEcl = Math.sin(oblEcl);
 		final double xe = xg;
-		final double ye = yg * Math.cos(this.computeOblEcl(dayNumber)) - zg
-				* Math.sin(this.computeOblEcl(dayNumber));
-		final double ze = yg * Math.sin(this.computeOblEcl(dayNumber)) + zg
-				* Math.cos(this.computeOblEcl(dayNumber));
+		final double ye = yg * cosOblEcl - zg * sinOblEcl;
+		final double ze = yg * sinOblEcl + zg * cosOblEcl;
 
 		this.RA = Math.atan2(ye, xe);
 		this.Dec = Math.atan2(ze, Math.sqrt(xe * xe + ye * ye));
@@ -134,44 +90,28 @@ public class PlanetData extends ObjectData {
 	}
 
 	protected void computeEphemeride(final double dayNumber) {
-
-		this.elongation = Math.atan((-((this.sun.getRs() * this.sun.getRs()
-				+ rg * rg - rh * rh) / (2 * this.sun.getRs() * rg)) / Math
-				.sqrt(-((this.sun.getRs() * this.sun.getRs() + rg * rg - rh
-						* rh) / (2 * this.sun.getRs() * rg))
-						* ((this.sun.getRs() * this.sun.getRs() + rg * rg - rh
-								* rh) / (2 * this.sun.getRs() * rg)) + 1)))
+		final double rs = this.getSunDistance();
+
+		this.elongation = Math.atan((-((rs * rs
+				+ rg * rg - rh * rh) / (2 * rs * rg)) / Math
+				.sqrt(-((rs * rs + rg * rg - rh
+						* rh) / (2 * rs * rg))
+						* ((rs * rs + rg * rg - rh
+								* rh) / (2 * rs * rg)) + 1)))
 				+ 2 * Math.atan(1);
-		final double fv = Math.atan((-((rh * rh + rg * rg - this.sun.getRs()
-				* this.sun.getRs()) / (2 * rg * rh)) / Math
-				.sqrt(-((rh * rh + rg * rg - this.sun.getRs()
-						* this.sun.getRs()) / (2 * rg * rh))
-						* ((rh * rh + rg * rg - this.sun.getRs()
-								* this.sun.getRs()) / (2 * rg * rh)) + 1)))
+		final double fv = Math.atan((-((rh * rh + rg * rg - rs
+				* rs) / (2 * rg * rh)) / Math
+				.sqrt(-((rh * rh + rg * rg - rs
+						* rs) / (2 * rg * rh))
+						* ((rh * rh + rg * rg - rs
+								* rs) / (2 * rg * rh)) + 1)))
 				+ 2 * Math.atan(1);
 		this.phase = (1 + Math.cos(fv)) / 2;
 
-		if (this.name.compareTo("Mercur") == 0) {
-			this.magnitude = -0.36 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.027 * fv + (0.00000000000022 * Math.pow(fv, 6));
-			this.appDiameter = 6.74 / this.rg;
-		}
-		if (this.name.compareTo("Venus") == 0) {
-			this.magnitude = -4.34 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.013 * fv + 0.00000042 * Math.pow(fv, 3);
-			this.appDiameter = 16.92 / this.rg;
-		}
-		if (this.name.compareTo("Marte") == 0) {
-			this.magnitude = -1.51 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.016 * fv;
-			this.appDiameter = 9.362 / this.rg;
-		}
-		if (this.name.compareTo("Jupiter") == 0) {
-			this.magnitude = -9.25 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.014 * fv;
-			this.appDiameter = 196.9 / this.rg;
-		}
-		if (this.name.compareTo("Saturn") == 0) {
+		this.magnitude = this.model.getMagnitude(rh * rg, fv);
+		this.appDiameter = this.model.getAppDiameter(this.rg);
+
+		if (this.model.hasRing()) {
 			final double las = this.Dec;
 			final double los = this.RA;
 			final double ir = 28.06 * Math.PI / 180;
@@ -182,22 +122,18 @@ public class PlanetData extends ObjectData {
 			final double ring_magnitude = -2.6 * Math.sin(Math.abs(b)) + 1.2
 					* Math.pow(Math.sin(b), 2);
 
-			this.magnitude = -9 + 5 * Math.log(rh * rg) / Math.log(10) + 0.044
-					* fv + ring_magnitude;
-			this.appDiameter = 165.6 / this.rg;
-		}
-		if (this.name.compareTo("Uranus") == 0) {
-			this.magnitude = -7.15 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.001 * fv;
-			this.appDiameter = 65.8 / this.rg;
-		}
-		if (this.name.compareTo("Neptun") == 0) {
-			this.magnitude = -6.9 + 5 * Math.log(rh * rg) / Math.log(10)
-					+ 0.001 * fv;
-			this.appDiameter = 62.2 / this.rg;
+			this.magnitude += ring_magnitude;
 		}
 	}
 
+	/**
+	 * Returns the distance from the Earth to the Sun, the third side of the
+	 * triangle giving the elongation and the phase
+	 */
+	protected double getSunDistance() {
+		return this.sun.getRs();
+	}
+
 	@Override
 	public void update(double dayNumber, final double latitude,
 			final double longitude) {
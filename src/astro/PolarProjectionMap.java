@@ -7,6 +7,7 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import astro.util.Date;
 
@@ -23,18 +24,34 @@ final public class PolarProjectionMap {
 	
 	public static final double RADS = Math.PI / 180.0;
 
+	// Number of points used to draw the ecliptic
+	public static final int ECLIPTIC_SAMPLES = 360;
+
 	private NorthPoint northP = null;
 	private SouthPoint southP = null;
 	private WestPoint westP = null;
 	private EastPoint eastP = null;
 
-	private ArrayList<ConstellationLine> conLines = null;
-	private ArrayList<ConstellationName> conNames = null;
-	private ArrayList<ConstellationStar> conStars = null;
-	private ArrayList<ConstellationBoundary> conBoundaries = null;
-	private ArrayList<ConstellationBoundaryLine> conBoundaryLines = null;
+	// Catalogs are stored column wise. Lines and boundaries keep their end
+	// points in a catalog of their own and reference them by index.
+	private SkyCatalog conStars = null;
+	// The constellation stars whose names are written on the map
+	private SkyCatalog starNames = null;
+	private SkyCatalog conNames = null;
+	private SkyCatalog conLinePoints = null;
+	private SkySegments conLines = null;
+	private SkyCatalog conBoundaryPoints = null;
+	private SkySegments conBoundaryLines = null;
+	private SkyCatalog mwPoints = null;
+	private SkySegments mw = null;
+	// Holds the positions of the Messier objects, in the same order as messData
+	private SkyCatalog messPoints = null;
 	private ArrayList<MessierData> messData = null;
-	private ArrayList<MilkyWayPoint> mw = null;
+	// The ecliptic as a closed polyline and the year its obliquity was
+	// computed for
+	private SkyCatalog eclipticPoints = null;
+	private SkySegments ecliptic = null;
+	private int eclipticYear;
 
 	private SolarSystemInfo pInfo = null;
 
@@ -45,6 +62,20 @@ final public class PolarProjectionMap {
 
 	private Date date = null;
 
+	// Shared by every object on the map
+	private StereographicProjection projection = null;
+	private final double[] projected = new double[2];
+
+	// Decides when the objects are recomputed
+	private SkyUpdateScheduler scheduler = new SkyUpdateScheduler();
+	// Incremented every time the objects are recomputed
+	private long version = 0;
+	// Set when the latitude or what is projected changes, the catalogs being
+	// reprojected by the next update
+	private boolean reproject = false;
+	// Whether the stars and the fixed lines are projected by the shaders
+	private boolean shaderProjection = false;
+
 	/**
 	 * Constructor
 	 * 
@@ -58,13 +89,7 @@ final public class PolarProjectionMap {
 	 * 			time zone difference from GMT
 	 */
 	public PolarProjectionMap(double longitude, double latitude, double timeDiff) {
-		this.conLines = new ArrayList<ConstellationLine>();
-		this.conNames = new ArrayList<ConstellationName>();
-		this.conStars = new ArrayList<ConstellationStar>();
-		this.conBoundaries = new ArrayList<ConstellationBoundary>();
-		this.conBoundaryLines = new ArrayList<ConstellationBoundaryLine>();
-		this.messData = new ArrayList<MessierData>();
-		this.mw = new ArrayList<PolarProjectionMap.MilkyWayPoint>();
+		this.initCatalogs();
 
 		this.timeDiff = timeDiff;
 		this.longitude = longitude;
@@ -74,6 +99,8 @@ final public class PolarProjectionMap {
 
 		this.lst = date.getLST();
 		this.lat = latitude * Math.PI / 180;
+		this.projection = new StereographicProjection(this.lat, this.lst);
+		this.initEcliptic(this.date.getYear());
 
 		this.pInfo = new SolarSystemInfo(this.lat, longitude, this.timeDiff);
 
@@ -99,18 +126,14 @@ final public class PolarProjectionMap {
 	public PolarProjectionMap(int year, int month, int day, double hour,
 			double longitude, double latitude) {
 
-		this.conLines = new ArrayList<ConstellationLine>();
-		this.conNames = new ArrayList<ConstellationName>();
-		this.conStars = new ArrayList<ConstellationStar>();
-		this.conBoundaries = new ArrayList<ConstellationBoundary>();
-		this.conBoundaryLines = new ArrayList<ConstellationBoundaryLine>();
-		this.messData = new ArrayList<MessierData>();
-		this.mw = new ArrayList<PolarProjectionMap.MilkyWayPoint>();
+		this.initCatalogs();
 
 		this.date = new Date(year, month, day, hour, longitude, this.timeDiff);
 
 		this.lst = date.getLST();
 		this.lat = latitude * Math.PI / 180;
+		this.projection = new StereographicProjection(this.lat, this.lst);
+		this.initEcliptic(this.date.getYear());
 
 		this.pInfo = new SolarSystemInfo(this.lat, longitude, this.timeDiff);
 
@@ -118,6 +141,20 @@ final public class PolarProjectionMap {
 
 	}
 
+	private void initCatalogs() {
+		this.conStars = new SkyCatalog(1024);
+		this.starNames = new SkyCatalog(256);
+		this.conNames = new SkyCatalog(128);
+		this.conLinePoints = new SkyCatalog(1024);
+		this.conLines = new SkySegments(this.conLinePoints, true);
+		this.conBoundaryPoints = new SkyCatalog(1024);
+		this.conBoundaryLines = new SkySegments(this.conBoundaryPoints, true);
+		this.mwPoints = new SkyCatalog(1024);
+		this.mw = new SkySegments(this.mwPoints, false);
+		this.messPoints = new SkyCatalog(128);
+		this.messData = new ArrayList<MessierData>();
+	}
+
 	/**
 	 * Updates all the objects in the map based on the time given as parameters
 	 * @param hour
@@ -126,12 +163,16 @@ final public class PolarProjectionMap {
 	 * @param year
 	 */
 	public void update (double hour, int day, int month, int year) {
+		if (hour != this.date.getHour() || day != this.date.getDay()
+				|| month != this.date.getMonth() || year != this.date.getYear())
+			this.scheduler.invalidate();
 		this.date = new Date(year, month, day, hour, longitude, this.timeDiff);
 		this.updateAll();
 	}
 	
 	/**
-	 * Updates all the objects in the map based on the current time
+	 * Updates all the objects in the map based on the current time. Nothing is
+	 * recomputed until the sky has moved enough to be noticed on the screen.
 	 */
 	public void update() {
 
@@ -140,67 +181,89 @@ final public class PolarProjectionMap {
 	}
 
 	private void updateAll(){
+		if (!this.scheduler.needsUpdate(date.getLST()))
+			return;
+
 		this.lst = date.getLST();
 
-		for (ConstellationLine cl : conLines) {
-			cl = this.initCoordsPP(cl);
-		}
-		for (ConstellationName cn : conNames) {
-			cn = this.initCoordsPP(cn);
-		}
-		for (ConstellationStar cs : conStars) {
-			cs = this.initCoordsPP(cs);
-		}
-		for (MilkyWayPoint mwp : mw) {
-			mwp = this.initCoordsPP(mwp);
+		// The obliquity of the ecliptic is only refreshed once a year
+		if (date.getYear() != this.eclipticYear)
+			this.initEcliptic(date.getYear());
+
+		// The fixed objects only depend on the sidereal time
+		if (this.reproject || this.lst != this.projection.getLST()) {
+			this.projection.setLST(this.lst);
+			this.updateFixedObjects();
+			this.reproject = false;
 		}
-		
-		conBoundaryLines = this.initCoordsPP(conBoundaries);
 
-		this.pInfo = new SolarSystemInfo(this.lat, longitude, this.timeDiff, date);
+		// The Solar System objects are moved in place
+		this.pInfo.setLocation(this.lat, this.longitude, this.timeDiff);
+		this.pInfo.update(date);
 		this.initializeSolarSystemObjects();
 
-		MessierData md = null;
-		for (int i=0; i<messData.size(); i++) {
-			md = messData.remove(i);			
-			md = this.initCoordsPP(md);
-			messData.add(i, md);
-		}
+		this.scheduler.updated(this.lst);
+		this.version++;
+	}
 
+	/**
+	 * Reprojects all the catalogs. Each point is rotated with the matrix of
+	 * the current sidereal time so the cost does not depend on how much the
+	 * time has changed. When the shaders project the stars and the fixed
+	 * lines, only the labels, the Messier objects and the ecliptic are left.
+	 */
+	private void updateFixedObjects() {
+		if (!this.shaderProjection) {
+			this.projection.project(this.conStars);
+			this.projection.project(this.conLinePoints);
+			this.projection.clip(this.conLines);
+			this.projection.project(this.conBoundaryPoints);
+			this.projection.clip(this.conBoundaryLines);
+			this.projection.project(this.mwPoints);
+			this.projection.clip(this.mw);
+		}
+		this.projection.project(this.starNames);
+		this.projection.project(this.conNames);
+		this.projection.project(this.messPoints);
+		this.syncMessierObjects();
+		this.projection.project(this.eclipticPoints);
+		this.projection.clip(this.ecliptic);
 	}
 
 	/**
-	 * Creates the points used to draw the ecliptic 
-	 * @return
+	 * Creates the points used to draw the ecliptic. The ecliptic is a great
+	 * circle of fixed equatorial coordinates which only depend on the
+	 * obliquity, so it is sampled once in ecliptic longitude (with a zero
+	 * ecliptic latitude) and then projected together with the catalogs.
+	 * 
+	 * @param year
+	 *            the year for which the obliquity is computed
 	 */
-	public ArrayList<ObjectData> updateEcliptic() {
-		int y = this.date.getYear();
-		int m = this.date.getMonth();
-		int d = this.date.getDay();
-		ArrayList<ObjectData> eclipticPoints = new ArrayList<ObjectData>();
+	private void initEcliptic(int year) {
+		final double d = new Date(year, 7, 1, 0, this.longitude, this.timeDiff).getDayNumber();
+		final double obl = (23.4393 - 0.0000003563 * d) * PolarProjectionMap.RADS;
+		final double cosObl = Math.cos(obl), sinObl = Math.sin(obl);
+		double lambda;
 		
-		Date date2 = null;
-		SunData sun = null;
-		for (int i=-100; i<500; i++) {
-			 date2 = new Date(y, m, d+i, 0, longitude, this.timeDiff);
-			 sun = new SunData("Sun", 0, 0, Date
-						.rev(282.9404 + 0.0000470935 * date2.getDayNumber())
-						* Math.PI / 180, 1, 0.016709 - 0.000000001151 * date2
-						.getDayNumber(), Date.rev(356.047 + 0.9856002585 * date2
-						.getDayNumber())
-						* Math.PI / 180, date2.getDayNumber(), lat, longitude, this.timeDiff);
-			eclipticPoints.add(this.initSSOPP(sun));
+		this.eclipticPoints = new SkyCatalog(PolarProjectionMap.ECLIPTIC_SAMPLES);
+		this.ecliptic = new SkySegments(this.eclipticPoints, false);
+		for (int i = 0; i < PolarProjectionMap.ECLIPTIC_SAMPLES; i++) {
+			lambda = 2 * Math.PI * i / PolarProjectionMap.ECLIPTIC_SAMPLES;
+			this.eclipticPoints.add(
+					Math.atan2(Math.sin(lambda) * cosObl, Math.cos(lambda)),
+					Math.asin(sinObl * Math.sin(lambda)), 0, null);
+			this.ecliptic.add(i, (i + 1) % PolarProjectionMap.ECLIPTIC_SAMPLES);
 		}
-		return eclipticPoints;
+		this.eclipticYear = year;
+
+		this.projection.project(this.eclipticPoints);
+		this.projection.clip(this.ecliptic);
 	}
 	
 	public void initializeSolarSystemObjects() {
-		ObjectData object = null;
-		for (int i = 0, size = this.pInfo.getObjects().size(); i < size; i++) {
-			object = this.pInfo.getObjects().remove(i);
-			object = this.initSSOPP(object);
-			this.pInfo.getObjects().add(i, object);
-		}
+		final ArrayList<ObjectData> objects = this.pInfo.getObjects();
+		for (int i = 0, size = objects.size(); i < size; i++)
+			this.initSSOPP(objects.get(i));
 	}
 
 	/**
@@ -209,7 +272,6 @@ final public class PolarProjectionMap {
 	 * @throws Exception
 	 */
 	public void initializeMilkyWayCoutour(String filename) throws Exception {
-		MilkyWayPoint mwp = null;
 		BufferedReader input = null;
 		
 		try {
@@ -226,20 +288,25 @@ final public class PolarProjectionMap {
 			
 			try {
 				String line = null;
+				// Lines without coordinates separate the contours
+				int previous = -1, current;
 				while ((line = input.readLine()) != null) {
 					String[] parts = line.split(fileSep);
 					if (parts.length == 2) {
-						mwp = new MilkyWayPoint(Double
-								.parseDouble(parts[0]), Double
-								.parseDouble(parts[1]));
-						mwp = this.initCoordsPP(mwp);
-						this.mw.add(mwp);
+						current = this.mwPoints.add(
+								PolarProjectionMap.raToRadians(Double.parseDouble(parts[0])),
+								Double.parseDouble(parts[1]) * PolarProjectionMap.RADS,
+								0, null);
+						if (previous != -1)
+							this.mw.add(previous, current);
+						previous = current;
 					}
 					else {
-						mwp = new MilkyWayPoint(Double.MIN_VALUE, Double.MIN_VALUE);
-						this.mw.add(mwp);
+						previous = -1;
 					}
 				}
+				this.projection.project(this.mwPoints);
+				this.projection.clip(this.mw);
 			} finally {
 				input.close();
 			}
@@ -279,9 +346,14 @@ final public class PolarProjectionMap {
 							.parseDouble(parts[1]), Double
 							.parseDouble(parts[2]), Double
 							.parseDouble(parts[3]));
-					messObject = this.initCoordsPP(messObject);
+					this.messPoints.add(
+							PolarProjectionMap.raToRadians(messObject.getRA()),
+							messObject.getDec() * PolarProjectionMap.RADS,
+							(float) messObject.getMagnitude(), messObject.getName());
 					this.messData.add(messObject);
 				}
+				this.projection.project(this.messPoints);
+				this.syncMessierObjects();
 			} finally {
 				input.close();
 			}
@@ -300,7 +372,6 @@ final public class PolarProjectionMap {
 	 * @throws Exception 
 	 */
 	public void initializeConstellationLines(String filename) throws Exception {
-		ConstellationLine conLine = null;
 		BufferedReader input = null;
 		try {
 			if (PolarProjectionMap.IS_WEB_APP) {
@@ -316,18 +387,18 @@ final public class PolarProjectionMap {
 			}
 			
 			try {
+				// Most stars are shared by several lines so each end point is
+				// stored (and projected) only once.
+				HashMap<Long, Integer> known = new HashMap<Long, Integer>();
 				String line = null;
 				while ((line = input.readLine()) != null) {
 					String[] parts = line.split(fileSep);
-					conLine = new ConstellationLine();
-					conLine.name = parts[0];
-					conLine.r1 = Integer.parseInt(parts[1]);
-					conLine.d1 = Integer.parseInt(parts[2]);
-					conLine.r2 = Integer.parseInt(parts[3]);
-					conLine.d2 = Integer.parseInt(parts[4]);
-					conLine = this.initCoordsPP(conLine);
-					this.conLines.add(conLine);
+					this.conLines.add(
+							this.addLinePoint(known, parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2])),
+							this.addLinePoint(known, parts[0], Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
 				}
+				this.projection.project(this.conLinePoints);
+				this.projection.clip(this.conLines);
 			} finally {
 				input.close();
 			}
@@ -336,6 +407,18 @@ final public class PolarProjectionMap {
 		}
 	}
 
+	private int addLinePoint(HashMap<Long, Integer> known, String name, int r, int d) {
+		final Long key = Long.valueOf(((long) r << 32) | (d & 0xffffffffL));
+		Integer index = known.get(key);
+		if (index == null) {
+			index = Integer.valueOf(this.conLinePoints.add(
+					PolarProjectionMap.raToRadians(r / 1000.0),
+					d / 100.0 * PolarProjectionMap.RADS, 0, name));
+			known.put(key, index);
+		}
+		return index.intValue();
+	}
+
 	/**
 	 * Initializes the constellations' boundaries from a given file. It also
 	 * computes their coordinates on the map
@@ -345,7 +428,6 @@ final public class PolarProjectionMap {
 	 * @throws Exception 
 	 */
 	public void initializeConstellationBoundaries(String filename) throws Exception {
-		ConstellationBoundary conBoundary = null;
 		BufferedReader input = null;
 		
 		try {
@@ -362,16 +444,20 @@ final public class PolarProjectionMap {
 			
 			try {
 				String line = null;
+				// A point flagged with 1 is linked with the previous one
+				int previous = -1, current;
 				while ((line = input.readLine()) != null) {
 					String[] parts = line.split(fileSep);
-					conBoundary = new ConstellationBoundary();
-					conBoundary.ok = (Integer.parseInt(parts[0]) == 0) ? false
-							: true;
-					conBoundary.r = Integer.parseInt(parts[1]);
-					conBoundary.d = Integer.parseInt(parts[2]);
-					conBoundaries.add(conBoundary);
+					current = this.conBoundaryPoints.add(
+							PolarProjectionMap.raToRadians(Integer.parseInt(parts[1]) / 1000.0),
+							Integer.parseInt(parts[2]) / 100.0 * PolarProjectionMap.RADS,
+							0, null);
+					if (previous != -1 && Integer.parseInt(parts[0]) != 0)
+						this.conBoundaryLines.add(previous, current);
+					previous = current;
 				}
-				this.conBoundaryLines = this.initCoordsPP(conBoundaries);
+				this.projection.project(this.conBoundaryPoints);
+				this.projection.clip(this.conBoundaryLines);
 			} finally {
 				input.close();
 			}
@@ -389,7 +475,6 @@ final public class PolarProjectionMap {
 	 * @throws Exception 
 	 */
 	public void initializeConstellationNames(String filename) throws Exception {
-		ConstellationName conName = null;
 		BufferedReader input = null;
 		
 		try {
@@ -408,13 +493,12 @@ final public class PolarProjectionMap {
 				String line = null;
 				while ((line = input.readLine()) != null) {
 					String[] parts = line.split(fileSep);
-					conName = new ConstellationName();
-					conName.name = parts[2];
-					conName.r = Integer.parseInt(parts[0]);
-					conName.d = Integer.parseInt(parts[1]);
-					conName = this.initCoordsPP(conName);
-					this.conNames.add(conName);
+					this.conNames.add(
+							PolarProjectionMap.raToRadians(Integer.parseInt(parts[0]) / 1000.0),
+							Integer.parseInt(parts[1]) / 100.0 * PolarProjectionMap.RADS,
+							0, parts[2]);
 				}
+				this.projection.project(this.conNames);
 			} finally {
 				input.close();
 			}
@@ -432,7 +516,6 @@ final public class PolarProjectionMap {
 	 * @throws Exception 
 	 */
 	public void initializeConstellationStars(String filename) throws Exception {
-		ConstellationStar conStar = null;
 		BufferedReader input = null;
 		try {
 			if (PolarProjectionMap.IS_WEB_APP) {
@@ -448,20 +531,25 @@ final public class PolarProjectionMap {
 			
 			try {
 				String line = null;
+				String name = null;
+				int index;
 				while ((line = input.readLine()) != null) {
 					String[] parts = line.split(fileSep);
 					if (parts.length == 1)
 						continue;
-					conStar = new ConstellationStar();
-					conStar.name = parts[1];
-					if (conStar.name.compareTo("alpha") == 0)
-						conStar.name = "alfa";
-					conStar.r = Double.parseDouble(parts[2]);
-					conStar.d = Double.parseDouble(parts[3]);
-					conStar.mag = Double.parseDouble(parts[4]);
-					conStar = this.initCoordsPP(conStar);
-					this.conStars.add(conStar);
+					name = parts[1];
+					if (name.compareTo("alpha") == 0)
+						name = "alfa";
+					index = this.conStars.add(
+							PolarProjectionMap.raToRadians(Double.parseDouble(parts[2])),
+							Double.parseDouble(parts[3]) * PolarProjectionMap.RADS,
+							Float.parseFloat(parts[4]), name);
+					if (name.compareTo("alfa") == 0 || name.compareTo("beta") == 0)
+						this.starNames.add(this.conStars.getRA(index), this.conStars.getDec(index),
+								this.conStars.getMag(index), name);
 				}
+				this.projection.project(this.conStars);
+				this.projection.project(this.starNames);
 			} finally {
 				input.close();
 			}
@@ -470,6 +558,33 @@ final public class PolarProjectionMap {
 		}
 	}
 
+	/**
+	 * Converts a right ascension given in hours to radians
+	 */
+	private static double raToRadians(double ra) {
+		return ra * PolarProjectionMap.RADS * 15.04107;
+	}
+
+	/**
+	 * Converts a right ascension given in radians back to hours
+	 */
+	public static double radiansToRa(double ra) {
+		return ra / (PolarProjectionMap.RADS * 15.04107);
+	}
+
+	/**
+	 * Copies the projected positions of the Messier objects from their catalog
+	 */
+	private void syncMessierObjects() {
+		MessierData md = null;
+		for (int i = 0, size = this.messData.size(); i < size; i++) {
+			md = this.messData.get(i);
+			md.setX(this.messPoints.getX(i));
+			md.setY(this.messPoints.getY(i));
+			md.setVisible(this.messPoints.isVisible(i));
+		}
+	}
+
 	/**
 	 * Initializes the cardinal points. It also computer their coordinates on
 	 * the map
@@ -498,479 +613,18 @@ final public class PolarProjectionMap {
 	}
 
 	/**
-	 * Computes the MilkyWay point coordinates on the map
-	 * 
-	 * @param mw
-	 *            MilkyWayPoint object containing relevant information
+	 * Computes the coordinates of a Solar System object on the map
 	 */
-	private MilkyWayPoint initCoordsPP(MilkyWayPoint mwp) {
-		double h, sina, glat, x, y, a1;
-		double r1, d1;
-		double x1 = 0, y1 = 0, z1 = 0;
-		double zalt = 1.570796;
-
-		mwp.visible = false;
-		
-		if (mwp.ra == Double.MIN_VALUE && mwp.dec == Double.MIN_VALUE) {
-			mwp.visible = false;
-			return mwp;
-		}
-		
-		r1 = mwp.ra * PolarProjectionMap.RADS * 15.04107;
-		d1 = mwp.dec * PolarProjectionMap.RADS;
-
-		h = this.lst - r1;
-		glat = this.lat;
-
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a1 = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z1 = Math.atan2(y, x);
-
-		// Case II
-		// Point is above the horizon
-		if (a1 > 0) {
-			x1 = Math.cos(z1) * Math.tan((zalt - a1) / 2);
-			y1 = Math.sin(z1) * Math.tan((zalt - a1) / 2);
-
-			mwp.visible = true;
-		}
-	
-		if (mwp.visible) {
-			mwp.x = x1;
-			mwp.y = y1;
-		}
-				
-		return mwp;
-	}
-
-	
-	/**
-	 * Computes the constellation line coordinates on the map
-	 * 
-	 * @param conLine
-	 *            ConstellationLine object containing relevant information
-	 */
-	private ConstellationLine initCoordsPP(ConstellationLine conLine) {
-		boolean plotted = false;
-		double h, sina, glat, x, y, a1, a2, aq, bq, cq, dg, xr1, xr2, yr1, yr2, atop, ztop, abot, zbot, M, c;
-		double r1, r2, d1, d2;
-		double x1 = 0, y1 = 0, z1 = 0, x2 = 0, y2 = 0, z2 = 0;
-		boolean p, q;
-		double zalt = 1.570796;
-
-		conLine.visible = false;
-		
-		r1 = conLine.r1 / 1000.0 * PolarProjectionMap.RADS * 15.04107;
-		d1 = conLine.d1 / 100.0 * PolarProjectionMap.RADS;
-
-		r2 = conLine.r2 / 1000.0 * PolarProjectionMap.RADS * 15.04107;
-		d2 = conLine.d2 / 100.0 * PolarProjectionMap.RADS;
-
-		h = this.lst - r1;
-		glat = this.lat;
-
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a1 = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z1 = Math.atan2(y, x);
-
-		h = this.lst - r2;
-		glat = this.lat;
-
-		sina = Math.sin(d2) * Math.sin(glat) + Math.cos(d2) * Math.cos(glat)
-				* Math.cos(h);
-		a2 = Math.asin(sina);
-		y = -Math.cos(d2) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d2) - Math.sin(glat) * sina;
-		z2 = Math.atan2(y, x);
-
-		// Case II
-		// Both ends are above the horizon
-		if ((a1 > 0) && (a2 > 0)) {
-			x1 = Math.cos(z1) * Math.tan((zalt - a1) / 2);
-			y1 = Math.sin(z1) * Math.tan((zalt - a1) / 2);
-
-			x2 = Math.cos(z2) * Math.tan((zalt - a2) / 2);
-			y2 = Math.sin(z2) * Math.tan((zalt - a2) / 2);
-			plotted = true;
-			conLine.visible = true;
-		}
-		// Case III
-		// An end is above the horizon and another is bellow
-		if ((plotted == false) && (a1 * a2) < 0) {
-			if (a1 > 0) {
-				atop = a1;
-				ztop = z1;
-				abot = a2;
-				zbot = z2;
-			} else {
-				atop = a2;
-				ztop = z2;
-				abot = a1;
-				zbot = z1;
-			}
-			x1 = Math.cos(ztop) * Math.tan((zalt - atop) / 2);
-			y1 = Math.sin(ztop) * Math.tan((zalt - atop) / 2);
-
-			x2 = Math.cos(zbot) * Math.tan((zalt - abot) / 2);
-			y2 = Math.sin(zbot) * Math.tan((zalt - abot) / 2);
-
-			M = (y1 - y2) / (x1 - x2);
-			c = y1 - M * x1;
-
-			aq = (M * M + 1);
-			bq = 2 * c * M;
-			cq = c * c - 1;
-
-			// Case V
-			dg = bq * bq - 4 * aq * cq;
-
-			xr1 = (-bq + Math.sqrt(dg)) / (2 * aq);
-			xr2 = (-bq - Math.sqrt(dg)) / (2 * aq);
-			yr1 = M * xr1 + c;
-			yr2 = M * xr2 + c;
-
-			p = between(x1, x2, xr1);
-			q = between(y1, y2, yr1);
-
-			if ((p == true) && (q == true)) {
-				x2 = xr1;
-				y2 = yr1;
-			}
-			p = between(x1, x2, xr2);
-			q = between(y1, y2, yr2);
-
-			if ((p == true) && (q == true)) {
-				x2 = xr2;
-				y2 = yr2;
-			}
-			conLine.visible = true;
-		}
-
-		if (conLine.visible) {
-			conLine.x1 = x1;
-			conLine.y1 = y1;
-			conLine.z1 = 0.0;
-
-			conLine.x2 = x2;
-			conLine.y2 = y2;
-			conLine.z2 = 0.0;
-		}
-		return conLine;
-	}
-
-	/**
-	 * Computes the constellation boundaries coordinates on the map
-	 * 
-	 * @param conBoundaries
-	 *            ConstellationBoundary object containing relevant information
-	 */
-	private ArrayList<ConstellationBoundaryLine> initCoordsPP(
-			ArrayList<ConstellationBoundary> conBoundaries) {
-		boolean plotted = false;
-		double h, sina, glat, x, y, a1, a2, aq, bq, cq, dg, xr1, xr2, yr1, yr2, atop, ztop, abot, zbot, M, c;
-		double r1, r2, d1, d2;
-		double x1 = 0, y1 = 0, z1 = 0, x2 = 0, y2 = 0, z2 = 0;
-		boolean p, q;
-		double zalt = 1.570796;
-
-		ArrayList<ConstellationBoundaryLine> conBoundaryLines = new ArrayList<ConstellationBoundaryLine>();
-		ConstellationBoundaryLine cBoundaryLine = null;
-
-		for (int i = 0; i < conBoundaries.size() - 1; i++) {
-			plotted = false;
-			
-			
-			if (conBoundaries.get(i + 1).isOk()) {
-
-				cBoundaryLine = new ConstellationBoundaryLine();
-
-				r1 = conBoundaries.get(i).r / 1000.0 * PolarProjectionMap.RADS
-						* 15.04107;
-				d1 = conBoundaries.get(i).d / 100.0 * PolarProjectionMap.RADS;
-
-				r2 = conBoundaries.get(i + 1).r / 1000.0
-						* PolarProjectionMap.RADS * 15.04107;
-				d2 = conBoundaries.get(i + 1).d / 100.0
-						* PolarProjectionMap.RADS;
-
-				h = this.lst - r1;
-				glat = this.lat;
-
-				sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1)
-						* Math.cos(glat) * Math.cos(h);
-				a1 = Math.asin(sina);
-				y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-				x = Math.sin(d1) - Math.sin(glat) * sina;
-				z1 = Math.atan2(y, x);
-
-				h = this.lst - r2;
-				glat = this.lat;
-
-				sina = Math.sin(d2) * Math.sin(glat) + Math.cos(d2)
-						* Math.cos(glat) * Math.cos(h);
-				a2 = Math.asin(sina);
-				y = -Math.cos(d2) * Math.cos(glat) * Math.sin(h);
-				x = Math.sin(d2) - Math.sin(glat) * sina;
-				z2 = Math.atan2(y, x);
-
-				// Case II
-				// Both ends are above the horizon
-				if ((a1 > 0) && (a2 > 0)) {
-					x1 = Math.cos(z1) * Math.tan((zalt - a1) / 2);
-					y1 = Math.sin(z1) * Math.tan((zalt - a1) / 2);
-
-					x2 = Math.cos(z2) * Math.tan((zalt - a2) / 2);
-					y2 = Math.sin(z2) * Math.tan((zalt - a2) / 2);
-					plotted = true;
-					cBoundaryLine.visible = true;
-				}
-				// Case III
-				// An end is above the horizon and another is bellow
-				if ((plotted == false) && (a1 * a2) < 0) {
-					if (a1 > 0) {
-						atop = a1;
-						ztop = z1;
-						abot = a2;
-						zbot = z2;
-					} else {
-						atop = a2;
-						ztop = z2;
-						abot = a1;
-						zbot = z1;
-					}
-					x1 = Math.cos(ztop) * Math.tan((zalt - atop) / 2);
-					y1 = Math.sin(ztop) * Math.tan((zalt - atop) / 2);
-
-					x2 = Math.cos(zbot) * Math.tan((zalt - abot) / 2);
-					y2 = Math.sin(zbot) * Math.tan((zalt - abot) / 2);
-
-					M = (y1 - y2) / (x1 - x2);
-					c = y1 - M * x1;
-
-					aq = (M * M + 1);
-					bq = 2 * c * M;
-					cq = c * c - 1;
-
-					// Case V
-					dg = bq * bq - 4 * aq * cq;
-
-					xr1 = (-bq + Math.sqrt(dg)) / (2 * aq);
-					xr2 = (-bq - Math.sqrt(dg)) / (2 * aq);
-					yr1 = M * xr1 + c;
-					yr2 = M * xr2 + c;
-
-					p = between(x1, x2, xr1);
-					q = between(y1, y2, yr1);
-
-					if ((p == true) && (q == true)) {
-						x2 = xr1;
-						y2 = yr1;
-					}
-					p = between(x1, x2, xr2);
-					q = between(y1, y2, yr2);
-
-					if ((p == true) && (q == true)) {
-						x2 = xr2;
-						y2 = yr2;
-					}
-					cBoundaryLine.visible = true;
-				}
-
-				cBoundaryLine.x1 = x1;
-				cBoundaryLine.y1 = y1;
-				cBoundaryLine.z1 = 0;
-				cBoundaryLine.x2 = x2;
-				cBoundaryLine.y2 = y2;
-				cBoundaryLine.z2 = 0;
-				conBoundaryLines.add(cBoundaryLine);
-			}
-		}
-		return conBoundaryLines;
-	}
-
 	private ObjectData initSSOPP(ObjectData object) {
-		double h, sina, glat, x, y, z, a;
-		double r1, d1;
-		double nudge = 0;//2 / 100.0;//offsets the object?!
-		double zalt = 1.570796;
-
-		r1 = object.getRA();
-		d1 = object.getDec();
-
-		h = this.lst - r1;
-		glat = this.lat;
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z = Math.atan2(y, x);
-
-		if (a > 0) {
-			x = Math.cos(z) * Math.tan((zalt - a) / 2);
-			y = Math.sin(z) * Math.tan((zalt - a) / 2);
-
-			if (x > 0)
-				x = x + 1 * nudge;
-			else
-				x = x + -1 * nudge;
-			if (y > 0)
-				y = y + 1 * nudge;
-			else
-				y = y + -1 * nudge;
-
-			object.setVisiblePP(true);
-		}
-		else
-			object.setVisiblePP(false);
+		final double[] xy = this.projected;
 
-		object.setXpp(x);
-		object.setYpp(y);
+		object.setVisiblePP(this.projection.project(object.getRA(), object.getDec(), xy));
+		object.setXpp(xy[0]);
+		object.setYpp(xy[1]);
 		return object;
 
 	}
 
-	/**
-	 * Computes the constellation name coordinates on the map
-	 * 
-	 * @param conName
-	 *            ConstellationName object containing relevant information
-	 */
-	private ConstellationName initCoordsPP(ConstellationName conName) {
-		double h, sina, glat, x, y, z, a;
-		double r1, d1;
-		double zalt = 1.570796;
-
-		r1 = conName.r / 1000.0 * PolarProjectionMap.RADS * 15.04107;
-		d1 = conName.d / 100.0 * PolarProjectionMap.RADS;
-
-		h = this.lst - r1;
-		glat = this.lat;
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z = Math.atan2(y, x);
-
-		if (a > 0) {
-			x = Math.cos(z) * Math.tan((zalt - a) / 2);
-			y = Math.sin(z) * Math.tan((zalt - a) / 2);
-			conName.visible = true;
-		}
-		else
-			conName.visible = false;
-
-		conName.x = x;
-		conName.y = y;
-		conName.z = 0;
-		return conName;
-	}
-
-	/**
-	 * Computes the messier objects' coordinates on the map
-	 * 
-	 * @param conStar
-	 *            MessierData object containing relevant information
-	 */
-	private MessierData initCoordsPP(MessierData messObject) {
-		double h, sina, glat, x, y, z, a;
-		double r1, d1;
-		double nudge =0;// 2 / 100.0;//offsets the object?!
-		double zalt = 1.570796;
-
-		r1 = messObject.getRA() * PolarProjectionMap.RADS * 15.04107;
-		d1 = messObject.getDec() * PolarProjectionMap.RADS;
-
-		h = this.lst - r1;
-		glat = this.lat;
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z = Math.atan2(y, x);
-
-		if (a > 0) {
-			x = Math.cos(z) * Math.tan((zalt - a) / 2);
-			y = Math.sin(z) * Math.tan((zalt - a) / 2);
-
-			if (x > 0)
-				x = x + 1 * nudge;
-			else
-				x = x + -1 * nudge;
-			if (y > 0)
-				y = y + 1 * nudge;
-			else
-				y = y + -1 * nudge;
-
-			messObject.setVisible(true);			
-		}
-		else {
-			messObject.setVisible(false);
-		}
-		
-		
-
-		messObject.setX(x);
-		messObject.setY(y);
-		return messObject;
-	}
-
-	/**
-	 * Computes the coordinates of a star on the map
-	 * @param conStar
-	 * @return
-	 */
-	
-	private ConstellationStar initCoordsPP(ConstellationStar conStar) {
-		double h, sina, glat, x, y, z, a;
-		double r1, d1;
-		double nudge = 0;//2 / 100.0;//offsets the stars?!
-		double zalt = 1.570796;
-
-		r1 = conStar.r * PolarProjectionMap.RADS * 15.04107;
-		d1 = conStar.d * PolarProjectionMap.RADS;
-
-		h = this.lst - r1;
-		glat = this.lat;
-		sina = Math.sin(d1) * Math.sin(glat) + Math.cos(d1) * Math.cos(glat)
-				* Math.cos(h);
-		a = Math.asin(sina);
-		y = -Math.cos(d1) * Math.cos(glat) * Math.sin(h);
-		x = Math.sin(d1) - Math.sin(glat) * sina;
-		z = Math.atan2(y, x);
-
-		if (a > 0) {
-			x = Math.cos(z) * Math.tan((zalt - a) / 2);
-			y = Math.sin(z) * Math.tan((zalt - a) / 2);
-
-			if (x > 0)
-				x = x + 1 * nudge;
-			else
-				x = x + -1 * nudge;
-			if (y > 0)
-				y = y + 1 * nudge;
-			else
-				y = y + -1 * nudge;
-
-			conStar.visible = true;
-		}
-		else
-			conStar.visible = false;
-
-		conStar.x = x;
-		conStar.y = y;
-		conStar.z = 0;
-		return conStar;
-	}
-
 	/**
 	 * Verifies whether a number is between another two numbers
 	 * 
@@ -995,317 +649,6 @@ final public class PolarProjectionMap {
 		return false;
 	}
 
-	/**
-	 * Class holding information about a single constellation line
-	 * 
-	 * @author Marc Frincu
-	 * @since March 15th 2009
-	 * 
-	 */
-	public class ConstellationLine {
-		int r1, d1, r2, d2;
-		String name;
-		double x1, y1, z1, x2, y2, z2;
-		boolean visible;
-
-		public ConstellationLine() {
-			this.visible = false;
-		}
-
-		public int getRA1() {
-			return r1;
-		}
-
-		public int getDec1() {
-			return d1;
-		}
-
-		public String getName() {
-			return name;
-		}
-
-		public double getPosX1() {
-			return x1;
-		}
-
-		public double getPosY1() {
-			return y1;
-		}
-
-		public double getPosZ1() {
-			return z1;
-		}
-
-		public int getRA2() {
-			return r2;
-		}
-
-		public int getDec2() {
-			return d2;
-		}
-
-		public double getPosX2() {
-			return x2;
-		}
-
-		public double getPosY2() {
-			return y2;
-		}
-
-		public double getPosZ2() {
-			return z2;
-		}
-
-		public boolean isVisible() {
-			return visible;
-		}
-	}
-
-	/**
-	 * Class holding information about a single constellation boundary point
-	 * 
-	 * @author Marc Frincu
-	 * @since March 15th 2009
-	 * 
-	 */
-	final private class ConstellationBoundary {
-		int r, d;
-		boolean ok, visible;
-
-		ConstellationBoundary() {
-			this.ok = false;
-		}
-
-		public double getRA() {
-			return this.r;
-		}
-
-		public double getDec() {
-			return this.d;
-		}
-
-		public boolean isOk() {
-			return this.ok;
-		}
-
-		public boolean isVisible() {
-			return this.visible;
-		}
-	}
-
-	/**
-	 * Class holding information about a single constellation boundary line
-	 * 
-	 * @author Marc Frincu
-	 * @since March 15th 2009
-	 * 
-	 */
-	final public class ConstellationBoundaryLine {
-		double x1, y1, z1, x2, y2, z2;
-		boolean visible;
-
-		ConstellationBoundaryLine() {
-			this.visible = false;
-		}
-
-		public double getPosX1() {
-			return x1;
-		}
-
-		public double getPosY1() {
-			return y1;
-		}
-
-		public double getPosZ1() {
-			return z1;
-		}
-
-		public double getPosX2() {
-			return x2;
-		}
-
-		public double getPosY2() {
-			return y2;
-		}
-
-		public double getPosZ2() {
-			return z2;
-		}
-
-		public boolean isVisible() {
-			return visible;
-		}
-
-	}
-
-	/**
-	 * Class holding information about a single constellation name
-	 * 
-	 * @author Marc Frincu
-	 * @since March 15th 2009
-	 * 
-	 */
-	final public class ConstellationName {
-		int r, d;
-		String name;
-		double x, y, z;
-		boolean visible;
-
-		public ConstellationName() {
-			this.visible = false;
-		}
-
-		public float getRA() {
-			return r;
-		}
-
-		public float getDec() {
-			return d;
-		}
-
-		public String getName() {
-			return name;
-		}
-
-		public double getPosX() {
-			return x;
-		}
-
-		public double getPosY() {
-			return y;
-		}
-
-		public double getPosZ() {
-			return z;
-		}
-
-		public boolean isVisible() {
-			return visible;
-		}
-
-	}
-
-	/**
-	 * Class holding information about one Milky Way contour point 
-	 * @author Marc Frincu
-	 * @since 2017
-	 *
-	 */
-	final public class MilkyWayPoint {
-
-		private double ra, dec, x, y;
-		private boolean visible;
-
-		public boolean isVisible() {
-			return visible;
-		}
-
-		public void setVisible(boolean visible) {
-			this.visible = visible;
-		}
-
-		public double getX() {
-			return x;
-		}
-
-		public void setX(double x) {
-			this.x = x;
-		}
-
-		public double getY() {
-			return y;
-		}
-
-		public void setY(double y) {
-			this.y = y;
-		}
-
-		public MilkyWayPoint(double ra, double dec) {
-			this.ra = ra;
-			this.dec = dec;
-			this.visible = false;
-		}
-		
-		public MilkyWayPoint() {
-			this.visible = false;
-		}
-
-		public double getRa() {
-			return ra;
-		}
-
-		public void setRa(double ra) {
-			this.ra = ra;
-		}
-
-		public double getDec() {
-			return dec;
-		}
-
-		public void setDec(double dec) {
-			this.dec = dec;
-		}
-		
-		
-	}
-
-	
-	
-	/**
-	 * Class holding information about a single constellation star
-	 * 
-	 * @author Marc Frincu
-	 * @since March 15th 2009
-	 * 
-	 */
-	final public class ConstellationStar {
-		double r, d;
-		String name;
-		double x, y, z;
-		boolean visible;
-		double mag;
-
-		public double getMag() {
-			return mag;
-		}
-
-		public void setMag(double mag) {
-			this.mag = mag;
-		}
-
-		public ConstellationStar() {
-			this.visible = false;
-		}
-
-		public boolean isVisible() {
-			return visible;
-		}
-
-		public double getRA() {
-			return r;
-		}
-
-		public double getDec() {
-			return d;
-		}
-
-		public String getName() {
-			return name;
-		}
-
-		public double getPosX() {
-			return x;
-		}
-
-		public double getPosY() {
-			return y;
-		}
-
-		public double getPosZ() {
-			return z;
-		}
-	}
-
 	/**
 	 * Class holding information about the North cardinal point
 	 * 
@@ -1420,49 +763,66 @@ final public class PolarProjectionMap {
 	}
 
 	/**
-	 * Returns a list of Milky Way points
-	 * @return the list of MilkyWay points
+	 * Returns the Milky Way contour segments
+	 * @return the Milky Way segments
 	 */
-	public ArrayList<MilkyWayPoint> getMilkyWayPoints() {
+	public SkySegments getMilkyWay() {
 		return this.mw;
 	}
 	
 	/**
-	 * Returns a list of constellation name objects.
+	 * Returns the ecliptic segments
+	 * @return the ecliptic segments
+	 */
+	public SkySegments getEcliptic() {
+		return this.ecliptic;
+	}
+
+	/**
+	 * Returns the catalog of constellation names.
 	 * 
-	 * @return the list of ConstellationName objects
+	 * @return the catalog holding the constellation names
 	 */
 
-	public ArrayList<ConstellationName> getConNames() {
+	public SkyCatalog getConNames() {
 		return conNames;
 	}
 
 	/**
-	 * Returns a list of constellation line objects.
+	 * Returns the constellation line segments.
 	 * 
-	 * @return the list of ConstellationLine objects
+	 * @return the constellation lines
 	 */
-	public ArrayList<ConstellationLine> getConLines() {
+	public SkySegments getConLines() {
 		return conLines;
 	}
 
 	/**
-	 * Returns a list of constellation star objects.
+	 * Returns the catalog of constellation stars.
 	 * 
-	 * @return the list of ConstellationStar objects
+	 * @return the catalog holding the constellation stars
 	 */
 
-	public ArrayList<ConstellationStar> getConStars() {
+	public SkyCatalog getConStars() {
 		return conStars;
 	}
 
 	/**
-	 * Returns a list of constellation boundary line objects.
+	 * Returns the constellation stars named on the map, the alpha and the
+	 * beta of each constellation. They are projected even when the shaders
+	 * project the other stars.
+	 */
+	public SkyCatalog getStarNames() {
+		return this.starNames;
+	}
+
+	/**
+	 * Returns the constellation boundary segments.
 	 * 
-	 * @return the list of ConstellationBoundaryLine objects
+	 * @return the constellation boundaries
 	 */
 
-	public ArrayList<ConstellationBoundaryLine> getConBoundaryLines() {
+	public SkySegments getConBoundaryLines() {
 		return conBoundaryLines;
 	}
 
@@ -1513,17 +873,47 @@ final public class PolarProjectionMap {
 		return messData;
 	}
 
-	public void setConBoundaryLines(
-			ArrayList<ConstellationBoundaryLine> conBoundaryLines) {
-		this.conBoundaryLines = conBoundaryLines;
+	/**
+	 * Returns the catalog holding the positions of the Messier objects. The
+	 * order is the same as the one of {@link #getMessData()}.
+	 */
+	public SkyCatalog getMessPoints() {
+		return messPoints;
 	}
 
 	public double getLat() {
 		return lat;
 	}
 
+	/**
+	 * Sets the latitude, in radians. Like the other setters of the place, it
+	 * must be called by the thread owning the map, see
+	 * {@link SkyComputeThread#setLocation(double, double, double)}. The
+	 * objects are moved by the next update.
+	 */
 	public void setLat(double lat) {
 		this.lat = lat;
+		this.projection.setLatitude(lat);
+		this.reproject = true;
+		this.scheduler.invalidate();
+	}
+
+	public boolean isShaderProjection() {
+		return this.shaderProjection;
+	}
+
+	/**
+	 * Chooses whether the stars and the fixed lines are left to the shaders,
+	 * in which case they are no longer projected here. Must be called by the
+	 * thread owning the map, see
+	 * {@link SkyComputeThread#setShaderProjection(boolean)}.
+	 */
+	public void setShaderProjection(boolean shaderProjection) {
+		if (shaderProjection == this.shaderProjection)
+			return;
+		this.shaderProjection = shaderProjection;
+		this.reproject = true;
+		this.scheduler.invalidate();
 	}
 
 	public double getLongitude() {
@@ -1532,6 +922,7 @@ final public class PolarProjectionMap {
 
 	public void setLongitude(double longitude) {
 		this.longitude = longitude;
+		this.scheduler.invalidate();
 	}
 
 	public double getTimeDiff() {
@@ -1540,9 +931,30 @@ final public class PolarProjectionMap {
 
 	public void setTimeDiff(double timeDiff) {
 		this.timeDiff = timeDiff;
+		this.scheduler.invalidate();
 	}
 
 	public Date getDate() {
 		return this.date;
 	}
+
+	/**
+	 * Returns the sidereal time (in radians) the objects were last computed for
+	 */
+	public double getLST() {
+		return this.lst;
+	}
+
+	public SkyUpdateScheduler getUpdateScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * Returns a number which changes every time the objects on the map are
+	 * recomputed. Callers can use it to know whether the data they derived
+	 * from the map is still valid.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
 }
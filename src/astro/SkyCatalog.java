@@ -0,0 +1,177 @@
+package astro;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column oriented store for catalog points (stars, constellation names, line
+ * end points, Milky Way contour points). Every attribute is kept in its own
+ * primitive array so that a full reprojection is a linear sweep over a few
+ * contiguous arrays instead of a walk through one heap object per point.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkyCatalog {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private int size = 0;
+
+	// Static data, set when the catalog is loaded. RA and Dec are in radians.
+	// Each point is also kept as an equatorial unit vector, a time step then
+	// only has to rotate it.
+	private double[] ra, dec, ux, uy, uz;
+	private float[] mag;
+	private String[] names;
+
+	// Projected data, rewritten on every update.
+	private float[] x, y;
+	private BitSet visible;
+
+	public SkyCatalog() {
+		this(SkyCatalog.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            the expected number of points
+	 */
+	public SkyCatalog(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.ra = new double[capacity];
+		this.dec = new double[capacity];
+		this.ux = new double[capacity];
+		this.uy = new double[capacity];
+		this.uz = new double[capacity];
+		this.mag = new float[capacity];
+		this.names = new String[capacity];
+		this.x = new float[capacity];
+		this.y = new float[capacity];
+		this.visible = new BitSet(capacity);
+	}
+
+	/**
+	 * Adds a point to the catalog
+	 *
+	 * @param ra
+	 *            the right ascension in radians
+	 * @param dec
+	 *            the declination in radians
+	 * @param mag
+	 *            the magnitude
+	 * @param name
+	 *            the name of the point or null if it has none
+	 * @return the index of the point inside the catalog
+	 */
+	public int add(double ra, double dec, float mag, String name) {
+		if (this.size == this.ra.length)
+			this.grow();
+
+		this.ra[this.size] = ra;
+		this.dec[this.size] = dec;
+		this.ux[this.size] = Math.cos(dec) * Math.cos(ra);
+		this.uy[this.size] = Math.cos(dec) * Math.sin(ra);
+		this.uz[this.size] = Math.sin(dec);
+		this.mag[this.size] = mag;
+		this.names[this.size] = name;
+		return this.size++;
+	}
+
+	private void grow() {
+		final int capacity = this.ra.length * 2;
+		this.ra = Arrays.copyOf(this.ra, capacity);
+		this.dec = Arrays.copyOf(this.dec, capacity);
+		this.ux = Arrays.copyOf(this.ux, capacity);
+		this.uy = Arrays.copyOf(this.uy, capacity);
+		this.uz = Arrays.copyOf(this.uz, capacity);
+		this.mag = Arrays.copyOf(this.mag, capacity);
+		this.names = Arrays.copyOf(this.names, capacity);
+		this.x = Arrays.copyOf(this.x, capacity);
+		this.y = Arrays.copyOf(this.y, capacity);
+	}
+
+	// Raw columns used by the projection
+	double[] getUXs() {
+		return this.ux;
+	}
+
+	double[] getUYs() {
+		return this.uy;
+	}
+
+	double[] getUZs() {
+		return this.uz;
+	}
+
+	float[] getXs() {
+		return this.x;
+	}
+
+	float[] getYs() {
+		return this.y;
+	}
+
+	BitSet getVisibility() {
+		return this.visible;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public double getRA(int index) {
+		return this.ra[index];
+	}
+
+	public double getDec(int index) {
+		return this.dec[index];
+	}
+
+	/**
+	 * Returns the x component of the equatorial unit vector of a point
+	 */
+	public double getUX(int index) {
+		return this.ux[index];
+	}
+
+	public double getUY(int index) {
+		return this.uy[index];
+	}
+
+	public double getUZ(int index) {
+		return this.uz[index];
+	}
+
+	public float getMag(int index) {
+		return this.mag[index];
+	}
+
+	public String getName(int index) {
+		return this.names[index];
+	}
+
+	public float getX(int index) {
+		return this.x[index];
+	}
+
+	public float getY(int index) {
+		return this.y[index];
+	}
+
+	public boolean isVisible(int index) {
+		return this.visible.get(index);
+	}
+
+	/**
+	 * Returns the index of the first visible point starting with the given
+	 * index or -1 if there is none
+	 */
+	public int nextVisible(int fromIndex) {
+		final int index = this.visible.nextSetBit(fromIndex);
+		return (index >= this.size) ? -1 : index;
+	}
+}
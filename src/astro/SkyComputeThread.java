@@ -0,0 +1,204 @@
+package astro;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the sky away from the rendering thread. The thread owns the
+ * {@link PolarProjectionMap}: it follows the clock, or the time requested by
+ * the user, moves to the place requested by the user, and every time the map
+ * is recomputed it publishes a new {@link SkySnapshot}. Readers only ever see
+ * complete snapshots, the latest one being returned by
+ * {@link #getSnapshot()}.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkyComputeThread extends Thread {
+
+	// How often (in ms) the clock is checked when the map follows it
+	public static final long DEFAULT_PERIOD = 200;
+
+	private final PolarProjectionMap ppm;
+	private final AtomicReference<SkySnapshot> snapshot = new AtomicReference<SkySnapshot>();
+
+	// The requested time. Guarded by this.
+	private boolean realTime = true;
+	private double hour;
+	private int day, month, year;
+	private boolean pending = false;
+	// The requested place. Guarded by this.
+	private double lat, longitude, timeDiff;
+	private boolean locationPending = false;
+	// Whether the shaders project the stars and the fixed lines. Guarded by
+	// this.
+	private boolean shaderProjection = false;
+
+	// Told about every new snapshot, e.g. to draw it
+	private volatile Runnable listener = null;
+
+	private volatile boolean running = true;
+	private long period = SkyComputeThread.DEFAULT_PERIOD;
+
+	/**
+	 * Constructor. The first snapshot is built right away so that readers
+	 * always have one. The map must not be used by anyone else once the
+	 * thread is started.
+	 *
+	 * @param ppm
+	 *            the map, with its catalogs loaded
+	 */
+	public SkyComputeThread(PolarProjectionMap ppm) {
+		super("SkyComputeThread");
+		this.setDaemon(true);
+		this.ppm = ppm;
+		this.publish();
+	}
+
+	/**
+	 * Returns the latest snapshot of the sky
+	 */
+	public SkySnapshot getSnapshot() {
+		return this.snapshot.get();
+	}
+
+	/**
+	 * Sets the code run, on this thread, after each new snapshot is published
+	 */
+	public void setListener(Runnable listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets how often the clock is checked when the map follows it
+	 *
+	 * @param period
+	 *            the period in ms
+	 */
+	public synchronized void setPeriod(long period) {
+		this.period = Math.max(period, 1);
+	}
+
+	/**
+	 * Shows the sky at the given time
+	 */
+	public synchronized void setTime(double hour, int day, int month, int year) {
+		this.realTime = false;
+		this.hour = hour;
+		this.day = day;
+		this.month = month;
+		this.year = year;
+		this.pending = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Shows the sky at the current time and keeps following the clock
+	 */
+	public synchronized void setRealTime() {
+		this.realTime = true;
+		this.pending = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Moves the observer. The map is changed on this thread, before its next
+	 * update.
+	 *
+	 * @param lat
+	 *            the latitude in radians
+	 * @param longitude
+	 *            the longitude
+	 * @param timeDiff
+	 *            the time zone difference from GMT
+	 */
+	public synchronized void setLocation(double lat, double longitude, double timeDiff) {
+		this.lat = lat;
+		this.longitude = longitude;
+		this.timeDiff = timeDiff;
+		this.locationPending = true;
+		this.pending = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Chooses whether the stars and the fixed lines are projected by the
+	 * shaders, in which case the map stops projecting them. The snapshots
+	 * published afterwards hold neither their lines nor, until they are
+	 * read, the positions of the stars.
+	 */
+	public synchronized void setShaderProjection(boolean shaderProjection) {
+		this.shaderProjection = shaderProjection;
+		this.pending = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Stops the thread once the current computation is done
+	 */
+	public void shutdown() {
+		this.running = false;
+		this.interrupt();
+	}
+
+	@Override
+	public void run() {
+		boolean realTime;
+		double hour;
+		int day, month, year;
+		boolean moved, shaderProjection;
+		double lat = 0, longitude = 0, timeDiff = 0;
+
+		while (this.running) {
+			synchronized (this) {
+				try {
+					// Nothing changes by itself when the time is fixed
+					if (!this.pending && this.realTime)
+						this.wait(this.period);
+					else
+						while (!this.pending)
+							this.wait();
+				} catch (InterruptedException e) {
+					continue;
+				}
+				this.pending = false;
+				realTime = this.realTime;
+				hour = this.hour;
+				day = this.day;
+				month = this.month;
+				year = this.year;
+				shaderProjection = this.shaderProjection;
+				moved = this.locationPending;
+				if (moved) {
+					lat = this.lat;
+					longitude = this.longitude;
+					timeDiff = this.timeDiff;
+					this.locationPending = false;
+				}
+			}
+
+			if (moved) {
+				this.ppm.setLat(lat);
+				this.ppm.setLongitude(longitude);
+				this.ppm.setTimeDiff(timeDiff);
+			}
+			this.ppm.setShaderProjection(shaderProjection);
+
+			if (realTime)
+				this.ppm.update();
+			else
+				this.ppm.update(hour, day, month, year);
+
+			if (this.ppm.getVersion() != this.snapshot.get().getVersion()) {
+				this.publish();
+				final Runnable listener = this.listener;
+				if (listener != null)
+					listener.run();
+			}
+		}
+	}
+
+	private void publish() {
+		this.snapshot.set(new SkySnapshot(this.ppm));
+	}
+}
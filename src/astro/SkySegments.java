@@ -0,0 +1,136 @@
+package astro;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column oriented store for line segments (constellation lines, constellation
+ * boundaries, Milky Way contour). A segment only holds the indices of its end
+ * points inside a {@link SkyCatalog} and the projected coordinates of its
+ * visible part.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkySegments {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private final SkyCatalog points;
+	// Whether segments with an end under the horizon are cut at the horizon
+	// or hidden altogether.
+	private final boolean clipToHorizon;
+
+	private int size = 0;
+	private int[] from, to;
+
+	private float[] x1, y1, x2, y2;
+	private BitSet visible;
+
+	/**
+	 * Constructor
+	 *
+	 * @param points
+	 *            the catalog holding the end points of the segments
+	 * @param clipToHorizon
+	 *            true if a segment having only one end above the horizon is
+	 *            drawn up to the horizon, false if it is hidden
+	 */
+	public SkySegments(SkyCatalog points, boolean clipToHorizon) {
+		this.points = points;
+		this.clipToHorizon = clipToHorizon;
+		this.from = new int[SkySegments.DEFAULT_CAPACITY];
+		this.to = new int[SkySegments.DEFAULT_CAPACITY];
+		this.x1 = new float[SkySegments.DEFAULT_CAPACITY];
+		this.y1 = new float[SkySegments.DEFAULT_CAPACITY];
+		this.x2 = new float[SkySegments.DEFAULT_CAPACITY];
+		this.y2 = new float[SkySegments.DEFAULT_CAPACITY];
+		this.visible = new BitSet(SkySegments.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Adds a segment between two points of the catalog
+	 *
+	 * @return the index of the segment
+	 */
+	public int add(int from, int to) {
+		if (this.size == this.from.length)
+			this.grow();
+
+		this.from[this.size] = from;
+		this.to[this.size] = to;
+		return this.size++;
+	}
+
+	private void grow() {
+		final int capacity = this.from.length * 2;
+		this.from = Arrays.copyOf(this.from, capacity);
+		this.to = Arrays.copyOf(this.to, capacity);
+		this.x1 = Arrays.copyOf(this.x1, capacity);
+		this.y1 = Arrays.copyOf(this.y1, capacity);
+		this.x2 = Arrays.copyOf(this.x2, capacity);
+		this.y2 = Arrays.copyOf(this.y2, capacity);
+	}
+
+	void setProjected(int index, double x1, double y1, double x2, double y2) {
+		this.x1[index] = (float) x1;
+		this.y1[index] = (float) y1;
+		this.x2[index] = (float) x2;
+		this.y2[index] = (float) y2;
+		this.visible.set(index);
+	}
+
+	void setHidden(int index) {
+		this.visible.clear(index);
+	}
+
+	public SkyCatalog getPoints() {
+		return this.points;
+	}
+
+	public boolean isClipToHorizon() {
+		return this.clipToHorizon;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getFrom(int index) {
+		return this.from[index];
+	}
+
+	public int getTo(int index) {
+		return this.to[index];
+	}
+
+	public float getX1(int index) {
+		return this.x1[index];
+	}
+
+	public float getY1(int index) {
+		return this.y1[index];
+	}
+
+	public float getX2(int index) {
+		return this.x2[index];
+	}
+
+	public float getY2(int index) {
+		return this.y2[index];
+	}
+
+	public boolean isVisible(int index) {
+		return this.visible.get(index);
+	}
+
+	/**
+	 * Returns the index of the first visible segment starting with the given
+	 * index or -1 if there is none
+	 */
+	public int nextVisible(int fromIndex) {
+		final int index = this.visible.nextSetBit(fromIndex);
+		return (index >= this.size) ? -1 : index;
+	}
+}
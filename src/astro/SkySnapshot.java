@@ -0,0 +1,427 @@
+package astro;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import astro.util.Date;
+import astro.util.SpatialGrid;
+
+/**
+ * Immutable copy of everything drawn on the map at a given moment: the
+ * projected catalogs, the visible segments, the Solar System objects and the
+ * ecliptic. Snapshots are built by the thread computing the sky and read by
+ * the rendering thread, which never touches the PolarProjectionMap itself.
+ *
+ * When the shaders project the stars and the fixed lines, the snapshot holds
+ * no lines but the ecliptic, and the stars are only projected if they are
+ * read, e.g. to pick one with the mouse.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkySnapshot {
+
+	private final long version;
+	private final Date date;
+	private final double lst, lat, timeDiff;
+	private final boolean shaderProjection;
+
+	private final Points stars, starNames, conNames, messier;
+	private final Lines conLines, conBoundaries, milkyWay, ecliptic;
+	private final Body[] bodies;
+
+	/**
+	 * Builds a snapshot of the current state of a map
+	 *
+	 * @param ppm
+	 *            the map
+	 */
+	SkySnapshot(PolarProjectionMap ppm) {
+		this.version = ppm.getVersion();
+		this.date = ppm.getDate();
+		this.lst = ppm.getLST();
+		this.lat = ppm.getLat();
+		this.timeDiff = ppm.getTimeDiff();
+		this.shaderProjection = ppm.isShaderProjection();
+
+		this.starNames = new Points(ppm.getStarNames());
+		this.conNames = new Points(ppm.getConNames());
+		this.messier = new Points(ppm.getMessPoints());
+		this.ecliptic = new Lines(ppm.getEcliptic());
+
+		if (this.shaderProjection) {
+			this.stars = new Points(ppm.getConStars(), this.lat, this.lst);
+			this.conLines = Lines.EMPTY;
+			this.conBoundaries = Lines.EMPTY;
+			this.milkyWay = Lines.EMPTY;
+		} else {
+			this.stars = new Points(ppm.getConStars());
+			this.conLines = new Lines(ppm.getConLines());
+			this.conBoundaries = new Lines(ppm.getConBoundaryLines());
+			this.milkyWay = new Lines(ppm.getMilkyWay());
+		}
+
+		final ArrayList<ObjectData> objects = ppm.getPInfo().getObjects();
+		this.bodies = new Body[objects.size()];
+		for (int i = 0; i < this.bodies.length; i++)
+			this.bodies[i] = new Body(objects.get(i));
+	}
+
+	public long getVersion() {
+		return this.version;
+	}
+
+	public Date getDate() {
+		return this.date;
+	}
+
+	public double getLST() {
+		return this.lst;
+	}
+
+	public double getLat() {
+		return this.lat;
+	}
+
+	public double getTimeDiff() {
+		return this.timeDiff;
+	}
+
+	/**
+	 * Returns true if the stars and the fixed lines are left to the shaders,
+	 * the constellation lines, the boundaries and the Milky Way being then
+	 * empty
+	 */
+	public boolean isShaderProjection() {
+		return this.shaderProjection;
+	}
+
+	public Points getStars() {
+		return this.stars;
+	}
+
+	/**
+	 * Returns the stars whose names are written on the map
+	 */
+	public Points getStarNames() {
+		return this.starNames;
+	}
+
+	public Points getConNames() {
+		return this.conNames;
+	}
+
+	/**
+	 * Returns the Messier objects in the order of
+	 * {@link PolarProjectionMap#getMessData()}
+	 */
+	public Points getMessier() {
+		return this.messier;
+	}
+
+	public Lines getConLines() {
+		return this.conLines;
+	}
+
+	public Lines getConBoundaries() {
+		return this.conBoundaries;
+	}
+
+	public Lines getMilkyWay() {
+		return this.milkyWay;
+	}
+
+	public Lines getEcliptic() {
+		return this.ecliptic;
+	}
+
+	public int getBodyCount() {
+		return this.bodies.length;
+	}
+
+	/**
+	 * Returns a Solar System object in the order of
+	 * {@link SolarSystemInfo#getObjects()}
+	 */
+	public Body getBody(int index) {
+		return this.bodies[index];
+	}
+
+	/**
+	 * Projected positions of the points of a catalog. The names and the
+	 * magnitudes never change once a catalog is loaded so they are read from
+	 * the catalog itself. The visible points are indexed by a grid, for
+	 * picking them with the mouse.
+	 */
+	final public static class Points {
+		// The map fits in the unit circle
+		private static final float GRID_EXTENT = 1;
+		private static final int GRID_CELLS = 32;
+
+		private final SkyCatalog catalog;
+		private final int size;
+		// The rotation of the points not projected by the map
+		private final double lat, lst;
+		// Filled once, before projected is set
+		private float[] x, y;
+		private BitSet visible;
+		private SpatialGrid grid;
+		private volatile boolean projected = false;
+
+		/**
+		 * Copies the points as projected by the map
+		 */
+		Points(SkyCatalog catalog) {
+			this.catalog = catalog;
+			this.size = catalog.size();
+			this.lat = 0;
+			this.lst = 0;
+			this.x = new float[this.size];
+			this.y = new float[this.size];
+			System.arraycopy(catalog.getXs(), 0, this.x, 0, this.size);
+			System.arraycopy(catalog.getYs(), 0, this.y, 0, this.size);
+			this.visible = (BitSet) catalog.getVisibility().clone();
+			this.index();
+			this.projected = true;
+		}
+
+		/**
+		 * Projects the points on the thread reading them, the first time
+		 * they are read. Only the directions of the points are used, which
+		 * never change once a catalog is loaded.
+		 */
+		Points(SkyCatalog catalog, double lat, double lst) {
+			this.catalog = catalog;
+			this.size = catalog.size();
+			this.lat = lat;
+			this.lst = lst;
+		}
+
+		private void project() {
+			if (this.projected)
+				return;
+			synchronized (this) {
+				if (this.projected)
+					return;
+				this.x = new float[this.size];
+				this.y = new float[this.size];
+				this.visible = new BitSet(this.size);
+				new StereographicProjection(this.lat, this.lst).project(this.catalog.getUXs(),
+						this.catalog.getUYs(), this.catalog.getUZs(), 0, this.size,
+						this.x, this.y, this.visible);
+				this.index();
+				this.projected = true;
+			}
+		}
+
+		private void index() {
+			final int count = this.visible.cardinality();
+			final float[] gridX = new float[count], gridY = new float[count];
+			final int[] indexes = new int[count];
+			int n = 0;
+			// Not through nextVisible(), which would project them again
+			for (int i = this.visible.nextSetBit(0); i != -1 && i < this.size; i = this.visible.nextSetBit(i + 1)) {
+				gridX[n] = this.x[i];
+				gridY[n] = this.y[i];
+				indexes[n++] = i;
+			}
+			this.grid = new SpatialGrid(Points.GRID_EXTENT, Points.GRID_CELLS, gridX, gridY, indexes, n);
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public float getX(int index) {
+			this.project();
+			return this.x[index];
+		}
+
+		public float getY(int index) {
+			this.project();
+			return this.y[index];
+		}
+
+		public boolean isVisible(int index) {
+			this.project();
+			return this.visible.get(index);
+		}
+
+		/**
+		 * Returns the index of the first visible point starting with the
+		 * given index or -1 if there is none
+		 */
+		public int nextVisible(int fromIndex) {
+			this.project();
+			final int index = this.visible.nextSetBit(fromIndex);
+			return (index >= this.size) ? -1 : index;
+		}
+
+		public String getName(int index) {
+			return this.catalog.getName(index);
+		}
+
+		public float getMag(int index) {
+			return this.catalog.getMag(index);
+		}
+
+		/**
+		 * Returns the right ascension of a point, in radians
+		 */
+		public double getRA(int index) {
+			return this.catalog.getRA(index);
+		}
+
+		/**
+		 * Returns the declination of a point, in radians
+		 */
+		public double getDec(int index) {
+			return this.catalog.getDec(index);
+		}
+
+		/**
+		 * Returns the index of the visible point nearest to a position, or
+		 * -1 if there is none within the given distance
+		 */
+		public int nearest(float x, float y, float radius) {
+			this.project();
+			return this.grid.nearest(x, y, radius);
+		}
+	}
+
+	/**
+	 * The visible segments of a line store, packed as x1, y1, x2, y2
+	 */
+	final public static class Lines {
+		static final Lines EMPTY = new Lines();
+
+		private final int size;
+		private final float[] coords;
+
+		private Lines() {
+			this.size = 0;
+			this.coords = new float[0];
+		}
+
+		Lines(SkySegments segments) {
+			int count = 0;
+			for (int i = segments.nextVisible(0); i != -1; i = segments.nextVisible(i + 1))
+				count++;
+
+			this.size = count;
+			this.coords = new float[count * 4];
+			count = 0;
+			for (int i = segments.nextVisible(0); i != -1; i = segments.nextVisible(i + 1)) {
+				this.coords[count++] = segments.getX1(i);
+				this.coords[count++] = segments.getY1(i);
+				this.coords[count++] = segments.getX2(i);
+				this.coords[count++] = segments.getY2(i);
+			}
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public float getX1(int index) {
+			return this.coords[index * 4];
+		}
+
+		public float getY1(int index) {
+			return this.coords[index * 4 + 1];
+		}
+
+		public float getX2(int index) {
+			return this.coords[index * 4 + 2];
+		}
+
+		public float getY2(int index) {
+			return this.coords[index * 4 + 3];
+		}
+
+		/**
+		 * Writes the segments in a buffer, four floats per segment
+		 */
+		public void get(FloatBuffer buffer) {
+			buffer.put(this.coords, 0, this.size * 4);
+		}
+
+		/**
+		 * Copies the segments in an array, four floats per segment
+		 */
+		public void get(float[] array) {
+			System.arraycopy(this.coords, 0, array, 0, this.size * 4);
+		}
+	}
+
+	/**
+	 * Position and ephemerides of a Solar System object
+	 */
+	final public static class Body {
+		private final String name;
+		private final double x, y;
+		private final boolean visible;
+		private final double magnitude, phase, appDiameter, elongation,
+				riseTime, transitTime, setTime;
+
+		Body(ObjectData object) {
+			this.name = object.getName();
+			this.x = object.getXpp();
+			this.y = object.getYpp();
+			this.visible = object.isVisiblePP();
+			this.magnitude = object.getMagnitude();
+			this.phase = object.getPhase();
+			this.appDiameter = object.getAppDiameter();
+			this.elongation = object.getElongation();
+			this.riseTime = object.getRiseTime();
+			this.transitTime = object.getTransitTime();
+			this.setTime = object.getSetTime();
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public double getXpp() {
+			return this.x;
+		}
+
+		public double getYpp() {
+			return this.y;
+		}
+
+		public boolean isVisiblePP() {
+			return this.visible;
+		}
+
+		public double getMagnitude() {
+			return this.magnitude;
+		}
+
+		public double getPhase() {
+			return this.phase;
+		}
+
+		public double getAppDiameter() {
+			return this.appDiameter;
+		}
+
+		public double getElongation() {
+			return this.elongation;
+		}
+
+		public double getRiseTime() {
+			return this.riseTime;
+		}
+
+		public double getTransitTime() {
+			return this.transitTime;
+		}
+
+		public double getSetTime() {
+			return this.setTime;
+		}
+	}
+}
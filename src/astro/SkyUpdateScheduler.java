@@ -0,0 +1,91 @@
+package astro;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides when the sky has to be recomputed. The map only changes in a visible
+ * way when the sidereal time moves enough for the objects to shift on the
+ * screen, or when the place or the time are changed by the user. In between,
+ * the already projected coordinates are reused.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkyUpdateScheduler {
+
+	// Default movement, in pixels, after which the sky is recomputed
+	public static final double DEFAULT_PIXEL_THRESHOLD = 0.5;
+
+	// Set by the rendering thread, read by the one computing the sky
+	private volatile double pixelThreshold = SkyUpdateScheduler.DEFAULT_PIXEL_THRESHOLD;
+	// LST difference (in radians) corresponding to the pixel threshold
+	private volatile double lstThreshold;
+
+	private double lastLst = 0;
+	// Cleared when read, so a request made during a computation is not lost
+	private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+	public SkyUpdateScheduler() {
+		this.setMapRadius(256);
+	}
+
+	/**
+	 * Sets the radius of the map contour (the horizon) on the screen. A star
+	 * at the horizon moves the most: by about the LST change (in radians)
+	 * times the map radius.
+	 *
+	 * @param pixels
+	 *            the radius of the map in pixels, zoom included
+	 */
+	public void setMapRadius(double pixels) {
+		this.lstThreshold = this.pixelThreshold / Math.max(pixels, 1);
+	}
+
+	/**
+	 * Sets the screen movement after which the sky is recomputed
+	 *
+	 * @param pixels
+	 *            the movement in pixels
+	 * @param mapRadius
+	 *            the radius of the map in pixels, zoom included
+	 */
+	public void setPixelThreshold(double pixels, double mapRadius) {
+		this.pixelThreshold = pixels;
+		this.setMapRadius(mapRadius);
+	}
+
+	/**
+	 * Forces a recomputation on the next update, e.g. when the place or the
+	 * time have been changed by the user
+	 */
+	public void invalidate() {
+		this.dirty.set(true);
+	}
+
+	/**
+	 * Checks whether the sky must be recomputed for the given sidereal time. A
+	 * recomputation forced by {@link #invalidate()} is reported only once, the
+	 * caller being expected to do it.
+	 *
+	 * @param lst
+	 *            the local sidereal time in radians
+	 */
+	public boolean needsUpdate(double lst) {
+		if (this.dirty.getAndSet(false))
+			return true;
+
+		double delta = Math.abs(lst - this.lastLst);
+		// The LST wraps around at 2 PI
+		if (delta > Math.PI)
+			delta = 2 * Math.PI - delta;
+		return delta > this.lstThreshold;
+	}
+
+	/**
+	 * Records that the sky has been recomputed for the given sidereal time
+	 */
+	public void updated(double lst) {
+		this.lastLst = lst;
+	}
+}
@@ -0,0 +1,58 @@
+package astro;
+
+import java.lang.management.ManagementFactory;
+
+import astro.util.Date;
+
+/**
+ * Checks that moving the Solar System objects to a new date allocates
+ * nothing once the code is warmed up, as {@link SolarSystemInfo#update(Date)}
+ * promises. The bytes allocated by the thread are read from the
+ * ThreadMXBean of the HotSpot JVMs.
+ *
+ * Usage: java astro.SolarSystemAllocationCheck
+ *
+ * Exits with 1 if the updates allocate anything, 2 if the JVM cannot tell.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class SolarSystemAllocationCheck {
+
+	private static final int WARM_UP = 200000, UPDATES = 100000;
+	// The dates are created before measuring, they are not part of an update
+	private static final int DATES = 1000;
+
+	public static void main(String args[]) {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			System.err.println("The JVM does not count the bytes allocated by a thread");
+			System.exit(2);
+		}
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		threads.setThreadAllocatedMemoryEnabled(true);
+		final long thread = Thread.currentThread().getId();
+
+		final Date[] dates = new Date[SolarSystemAllocationCheck.DATES];
+		for (int d = 0; d < dates.length; d++)
+			dates[d] = new Date(1950 + d / 12, d % 12 + 1, 1 + d % 28, d % 24, 0.4, 2);
+		final SolarSystemInfo info = new SolarSystemInfo(0.8, 0.4, 2, dates[0]);
+
+		for (int u = 0; u < SolarSystemAllocationCheck.WARM_UP; u++)
+			info.update(dates[u % dates.length]);
+
+		// Reading the counter may allocate the first time
+		threads.getThreadAllocatedBytes(thread);
+		final long before = threads.getThreadAllocatedBytes(thread);
+		for (int u = 0; u < SolarSystemAllocationCheck.UPDATES; u++)
+			info.update(dates[u % dates.length]);
+		final long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		System.out.println(SolarSystemAllocationCheck.UPDATES + " updates allocated "
+				+ allocated + " bytes");
+		if (allocated > 0)
+			System.exit(1);
+	}
+}
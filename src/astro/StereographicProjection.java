@@ -0,0 +1,269 @@
+package astro;
+
+import java.util.BitSet;
+
+/**
+ * Projects equatorial coordinates on the polar (stereographic) map for a given
+ * place and sidereal time. All the objects on the map go through this class.
+ *
+ * A point of right ascension ra and declination d is the equatorial unit
+ * vector u = (cos(d) cos(ra), cos(d) sin(ra), sin(d)). Going to the horizon
+ * of the place is a rotation about the celestial pole by the sidereal time
+ * followed by a tilt by the latitude, i.e. a single 3x3 matrix giving the
+ * north, east and up components of u:
+ *
+ * north = cos(a) cos(z), east = cos(a) sin(z), up = sin(a)
+ *
+ * where a is the altitude and z the azimuth. The point lands on the map at
+ * cos(z) tan((90 - a) / 2), sin(z) tan((90 - a) / 2) and since tan((90 - a) /
+ * 2) = cos(a) / (1 + sin(a)) this is simply (north, east) / (1 + up). The
+ * unit vectors of the catalog points are computed once when they are loaded,
+ * so whatever the time step is, an update costs one matrix and a few
+ * multiply-adds per point.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class StereographicProjection {
+
+	// Keeps points on the opposite side of the zenith (sin(a) = -1) finite
+	private static final double MIN_DENOMINATOR = 1e-12;
+
+	private double lat, lst;
+
+	// Rows of the equatorial to horizontal rotation: north, east, up
+	private double nx, ny, nz, ex, ey, ez, ux, uy, uz;
+
+	/**
+	 * Constructor
+	 *
+	 * @param lat
+	 *            the latitude of the place in radians
+	 * @param lst
+	 *            the local sidereal time in radians
+	 */
+	public StereographicProjection(double lat, double lst) {
+		this.lat = lat;
+		this.lst = lst;
+		this.updateRotation();
+	}
+
+	public void setLatitude(double lat) {
+		this.lat = lat;
+		this.updateRotation();
+	}
+
+	/**
+	 * Sets the sidereal time. The rotation is rebuilt from the absolute value
+	 * and not accumulated from the difference with the previous one, so
+	 * stepping back and forth in time does not drift.
+	 */
+	public void setLST(double lst) {
+		this.lst = lst;
+		this.updateRotation();
+	}
+
+	public double getLatitude() {
+		return this.lat;
+	}
+
+	public double getLST() {
+		return this.lst;
+	}
+
+	private void updateRotation() {
+		final double[] m = new double[9];
+		StereographicProjection.getRotation(this.lat, this.lst, m);
+
+		this.nx = m[0];
+		this.ny = m[1];
+		this.nz = m[2];
+
+		this.ex = m[3];
+		this.ey = m[4];
+		this.ez = m[5];
+
+		this.ux = m[6];
+		this.uy = m[7];
+		this.uz = m[8];
+	}
+
+	/**
+	 * Computes the equatorial to horizontal rotation, row by row: north, east
+	 * and up. Used as well by the renderers projecting on the GPU.
+	 *
+	 * @param lat
+	 *            the latitude of the place in radians
+	 * @param lst
+	 *            the local sidereal time in radians
+	 * @param m
+	 *            receives the 9 elements of the matrix
+	 */
+	public static void getRotation(double lat, double lst, double[] m) {
+		final double sinLat = Math.sin(lat), cosLat = Math.cos(lat);
+		final double sinLst = Math.sin(lst), cosLst = Math.cos(lst);
+
+		m[0] = -sinLat * cosLst;
+		m[1] = -sinLat * sinLst;
+		m[2] = cosLat;
+
+		m[3] = -sinLst;
+		m[4] = cosLst;
+		m[5] = 0;
+
+		m[6] = cosLat * cosLst;
+		m[7] = cosLat * sinLst;
+		m[8] = sinLat;
+	}
+
+	/**
+	 * Projects a range of points given as equatorial unit vectors. The
+	 * coordinates of the points under the horizon are computed as well.
+	 *
+	 * @param vx
+	 *            the x components of the unit vectors
+	 * @param vy
+	 *            the y components of the unit vectors
+	 * @param vz
+	 *            the z components of the unit vectors
+	 * @param from
+	 *            the first index to project
+	 * @param to
+	 *            the index after the last one to project
+	 * @param x
+	 *            receives the x coordinates on the map
+	 * @param y
+	 *            receives the y coordinates on the map
+	 * @param visible
+	 *            receives the points above the horizon
+	 */
+	public void project(double[] vx, double[] vy, double[] vz, int from,
+			int to, float[] x, float[] y, BitSet visible) {
+		final double nx = this.nx, ny = this.ny, nz = this.nz;
+		final double ex = this.ex, ey = this.ey;
+		final double ux = this.ux, uy = this.uy, uz = this.uz;
+		double up, k;
+
+		for (int i = from; i < to; i++) {
+			up = ux * vx[i] + uy * vy[i] + uz * vz[i];
+			k = 1 / Math.max(1 + up, StereographicProjection.MIN_DENOMINATOR);
+
+			x[i] = (float) ((nx * vx[i] + ny * vy[i] + nz * vz[i]) * k);
+			y[i] = (float) ((ex * vx[i] + ey * vy[i]) * k);
+			visible.set(i, up > 0);
+		}
+	}
+
+	/**
+	 * Projects all the points of a catalog
+	 */
+	public void project(SkyCatalog catalog) {
+		this.project(catalog.getUXs(), catalog.getUYs(), catalog.getUZs(), 0,
+				catalog.size(), catalog.getXs(), catalog.getYs(),
+				catalog.getVisibility());
+	}
+
+	/**
+	 * Projects a single point
+	 *
+	 * @param ra
+	 *            the right ascension in radians
+	 * @param dec
+	 *            the declination in radians
+	 * @param xy
+	 *            receives the x and y coordinates on the map
+	 * @return true if the point is above the horizon
+	 */
+	public boolean project(double ra, double dec, double[] xy) {
+		final double cosDec = Math.cos(dec);
+		final double vx = cosDec * Math.cos(ra), vy = cosDec * Math.sin(ra);
+		final double vz = Math.sin(dec);
+		final double up = this.ux * vx + this.uy * vy + this.uz * vz;
+		final double k = 1 / Math.max(1 + up,
+				StereographicProjection.MIN_DENOMINATOR);
+
+		xy[0] = (this.nx * vx + this.ny * vy + this.nz * vz) * k;
+		xy[1] = (this.ex * vx + this.ey * vy) * k;
+		return up > 0;
+	}
+
+	/**
+	 * Computes the visible part of every segment of a store. The end points
+	 * must have already been projected.
+	 *
+	 * @param segments
+	 *            the store holding the segments
+	 */
+	public void clip(SkySegments segments) {
+		double aq, bq, cq, dg, xr1, xr2, yr1, yr2, M, c;
+		double x1, y1, x2, y2;
+		boolean p, q, v1, v2;
+		int from, to;
+		final SkyCatalog points = segments.getPoints();
+
+		for (int i = 0, size = segments.size(); i < size; i++) {
+			from = segments.getFrom(i);
+			to = segments.getTo(i);
+			v1 = points.isVisible(from);
+			v2 = points.isVisible(to);
+
+			// Case II
+			// Both ends are above the horizon
+			if (v1 && v2) {
+				segments.setProjected(i, points.getX(from), points.getY(from),
+						points.getX(to), points.getY(to));
+				continue;
+			}
+			// Case III
+			// An end is above the horizon and another is bellow
+			if (v1 != v2 && segments.isClipToHorizon()) {
+				if (v1) {
+					x1 = points.getX(from);
+					y1 = points.getY(from);
+					x2 = points.getX(to);
+					y2 = points.getY(to);
+				} else {
+					x1 = points.getX(to);
+					y1 = points.getY(to);
+					x2 = points.getX(from);
+					y2 = points.getY(from);
+				}
+
+				M = (y1 - y2) / (x1 - x2);
+				c = y1 - M * x1;
+
+				aq = (M * M + 1);
+				bq = 2 * c * M;
+				cq = c * c - 1;
+
+				// Case V
+				dg = bq * bq - 4 * aq * cq;
+
+				xr1 = (-bq + Math.sqrt(dg)) / (2 * aq);
+				xr2 = (-bq - Math.sqrt(dg)) / (2 * aq);
+				yr1 = M * xr1 + c;
+				yr2 = M * xr2 + c;
+
+				p = PolarProjectionMap.between(x1, x2, xr1);
+				q = PolarProjectionMap.between(y1, y2, yr1);
+
+				if ((p == true) && (q == true)) {
+					x2 = xr1;
+					y2 = yr1;
+				}
+				p = PolarProjectionMap.between(x1, x2, xr2);
+				q = PolarProjectionMap.between(y1, y2, yr2);
+
+				if ((p == true) && (q == true)) {
+					x2 = xr2;
+					y2 = yr2;
+				}
+				segments.setProjected(i, x1, y1, x2, y2);
+				continue;
+			}
+
+			segments.setHidden(i);
+		}
+	}
+}
@@ -55,8 +55,9 @@ public class SunData extends ObjectData {
 		this.ys = rs * Math.sin(this.lonSun);
 
 		this.x = xs;
-		this.y = ys * Math.cos(this.computeOblEcl(dayNumber));
-		this.z = ys * Math.sin(this.computeOblEcl(dayNumber));
+		final double oblEcl = this.computeOblEcl(dayNumber);
+		this.y = ys * Math.cos(oblEcl);
+		this.z = ys * Math.sin(oblEcl);
 
 		this.RA = Math.atan2(this.y, this.x);
 		this.Dec = Math.atan2(this.z, Math.sqrt(this.x * this.x + this.y
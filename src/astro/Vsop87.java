@@ -0,0 +1,261 @@
+package astro;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The VSOP87 theory of the planets (Bretagnon and Francou, 1988), version D:
+ * the heliocentric ecliptic longitude, latitude and radius vector, referred
+ * to the ecliptic and equinox of the date. The coefficients are read from
+ * the binary tables written by {@link Vsop87Converter} and are kept in
+ * primitive arrays.
+ *
+ * The series can be truncated at run time: the terms with an amplitude
+ * below the threshold (in radians for L and B, in AU for R) are skipped. The
+ * terms of each series are sorted by decreasing amplitude, so a truncated
+ * series is a prefix of the full one. A threshold of 0 keeps everything.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class Vsop87 {
+
+	// The path (file or class path) of the tables, which enables the theory
+	public static final String TABLES_PROPERTY = "starchart.vsop87";
+	public static final String THRESHOLD_PROPERTY = "starchart.vsop87.threshold";
+
+	// "VSOP"
+	static final int MAGIC = 0x56534F50;
+	static final int VERSION = 1;
+	// The variables of a body, and the fields of a term
+	public static final int L = 0, B = 1, R = 2;
+	static final int TERM_SIZE = 3;
+
+	// Julian days of the day number 0 (1999 Dec 31, 0h) and of J2000
+	private static final double JD_DAY_ZERO = 2451543.5, JD_J2000 = 2451545.0;
+	private static final double DAYS_PER_MILLENNIUM = 365250;
+
+	private static Vsop87 defaultTheory = null;
+	private static boolean defaultLoaded = false;
+
+	private final String[] names;
+	// [body][variable][power] = A, B, C of each term
+	private final double[][][][] terms;
+	// [body][variable][power] = the number of terms kept by the truncation
+	private volatile int[][][] counts;
+	private double threshold = -1;
+
+	// The last position of the Earth, needed by every planet
+	private double earthTau = Double.NaN;
+	private final double[] earth = new double[3];
+	private final int earthIndex;
+
+	private Vsop87(String[] names, double[][][][] terms) {
+		this.names = names;
+		this.terms = terms;
+		this.earthIndex = this.indexOf("EARTH");
+		this.setThreshold(0);
+	}
+
+	/**
+	 * Returns the theory named by the system properties, or null if none is
+	 * or if its tables cannot be read. The tables are read once.
+	 */
+	public static synchronized Vsop87 getDefault() {
+		if (!Vsop87.defaultLoaded) {
+			Vsop87.defaultLoaded = true;
+			final String path = System.getProperty(Vsop87.TABLES_PROPERTY);
+			if (path != null) {
+				try {
+					Vsop87.defaultTheory = Vsop87.load(path);
+					Vsop87.defaultTheory.setThreshold(Double.parseDouble(
+							System.getProperty(Vsop87.THRESHOLD_PROPERTY, "0")));
+				} catch (Exception e) {
+					System.err.println("Cannot read the VSOP87 tables " + path
+							+ ", the planets are computed from their elements: " + e);
+					Vsop87.defaultTheory = null;
+				}
+			}
+		}
+		return Vsop87.defaultTheory;
+	}
+
+	/**
+	 * Reads the tables from the class path or else from a file
+	 */
+	public static Vsop87 load(String path) throws IOException {
+		InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
+		if (stream == null)
+			stream = new FileInputStream(path);
+		try {
+			return Vsop87.load(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the tables written by {@link Vsop87Converter}
+	 */
+	public static Vsop87 load(InputStream stream) throws IOException {
+		final DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+		if (input.readInt() != Vsop87.MAGIC || input.readInt() != Vsop87.VERSION)
+			throw new IOException("Not a VSOP87 table");
+
+		final int bodies = input.readInt();
+		final String[] names = new String[bodies];
+		final double[][][][] terms = new double[bodies][3][][];
+		double[] series;
+
+		for (int b = 0; b < bodies; b++) {
+			names[b] = input.readUTF();
+			for (int v = 0; v < 3; v++) {
+				terms[b][v] = new double[input.readInt()][];
+				for (int p = 0; p < terms[b][v].length; p++) {
+					series = new double[input.readInt() * Vsop87.TERM_SIZE];
+					for (int t = 0; t < series.length; t++)
+						series[t] = input.readDouble();
+					terms[b][v][p] = series;
+				}
+			}
+		}
+		return new Vsop87(names, terms);
+	}
+
+	/**
+	 * Returns the index of a body, named as in the VSOP87 files (e.g.
+	 * MERCURY), or -1 if the tables do not have it
+	 */
+	public int indexOf(String name) {
+		for (int b = 0; b < this.names.length; b++)
+			if (this.names[b].equals(name))
+				return b;
+		return -1;
+	}
+
+	public int getBodyCount() {
+		return this.names.length;
+	}
+
+	public String getName(int body) {
+		return this.names[body];
+	}
+
+	/**
+	 * Keeps only the terms with an amplitude of at least the threshold
+	 */
+	public synchronized void setThreshold(double threshold) {
+		if (threshold == this.threshold)
+			return;
+		final int[][][] counts = new int[this.terms.length][3][];
+		double[] series;
+		int low, high, middle;
+
+		for (int b = 0; b < this.terms.length; b++)
+			for (int v = 0; v < 3; v++) {
+				counts[b][v] = new int[this.terms[b][v].length];
+				for (int p = 0; p < counts[b][v].length; p++) {
+					// The first term below the threshold
+					series = this.terms[b][v][p];
+					low = 0;
+					high = series.length / Vsop87.TERM_SIZE;
+					while (low < high) {
+						middle = (low + high) >>> 1;
+						if (Math.abs(series[middle * Vsop87.TERM_SIZE]) >= threshold)
+							low = middle + 1;
+						else
+							high = middle;
+					}
+					counts[b][v][p] = low;
+				}
+			}
+
+		this.threshold = threshold;
+		this.counts = counts;
+		this.earthTau = Double.NaN;
+	}
+
+	public synchronized double getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * Returns the number of terms evaluated for a body
+	 */
+	public int getTermCount(int body) {
+		final int[][] counts = this.counts[body];
+		int count = 0;
+		for (int v = 0; v < 3; v++)
+			for (int p = 0; p < counts[v].length; p++)
+				count += counts[v][p];
+		return count;
+	}
+
+	/**
+	 * Returns the time argument of the series, in Julian millennia from
+	 * J2000. The day number, in UT, is taken as dynamical time, which is
+	 * about a minute off.
+	 */
+	public static double toMillennia(double dayNumber) {
+		return (dayNumber + Vsop87.JD_DAY_ZERO - Vsop87.JD_J2000) / Vsop87.DAYS_PER_MILLENNIUM;
+	}
+
+	/**
+	 * Computes the heliocentric coordinates of a body
+	 *
+	 * @param tau
+	 *            the time in Julian millennia from J2000
+	 * @param lbr
+	 *            receives the longitude in [0, 2 PI), the latitude in radians
+	 *            and the radius vector in AU
+	 */
+	public void getHeliocentric(int body, double tau, double[] lbr) {
+		final int[][] counts = this.counts[body];
+		final double[][][] terms = this.terms[body];
+		double[] series;
+		double value, sum;
+		int end;
+
+		for (int v = 0; v < 3; v++) {
+			// Horner's scheme on the powers of tau
+			value = 0;
+			for (int p = terms[v].length - 1; p >= 0; p--) {
+				series = terms[v][p];
+				end = counts[v][p] * Vsop87.TERM_SIZE;
+				sum = 0;
+				for (int t = 0; t < end; t += Vsop87.TERM_SIZE)
+					sum += series[t] * Math.cos(series[t + 1] + series[t + 2] * tau);
+				value = value * tau + sum;
+			}
+			lbr[v] = value;
+		}
+
+		lbr[Vsop87.L] %= 2 * Math.PI;
+		if (lbr[Vsop87.L] < 0)
+			lbr[Vsop87.L] += 2 * Math.PI;
+	}
+
+	/**
+	 * Computes the heliocentric coordinates of the Earth, remembering the
+	 * last ones since every planet needs them
+	 */
+	synchronized void getEarth(double tau, double[] lbr) {
+		if (tau != this.earthTau) {
+			this.getHeliocentric(this.earthIndex, tau, this.earth);
+			this.earthTau = tau;
+		}
+		System.arraycopy(this.earth, 0, lbr, 0, 3);
+	}
+
+	/**
+	 * Returns true if the tables hold the Earth, which is needed for the
+	 * geocentric positions
+	 */
+	public boolean hasEarth() {
+		return this.earthIndex != -1;
+	}
+}
@@ -0,0 +1,134 @@
+package astro;
+
+import astro.util.Date;
+
+/**
+ * Measures, for several truncation thresholds of {@link Vsop87}, the number
+ * of terms kept, the time taken by an evaluation and the largest error
+ * against the full series, and compares the cost of updating the Solar
+ * System with the orbital elements.
+ *
+ * Usage: java astro.Vsop87Benchmark tables [threshold ...]
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class Vsop87Benchmark {
+
+	private static final double[] THRESHOLDS = { 0, 1e-9, 1e-8, 1e-7, 1e-6, 1e-5, 1e-4 };
+	// The dates sampled, from 1900 to 2100
+	private static final int DATES = 2000;
+	private static final double FIRST_DAY = -36524, LAST_DAY = 36525;
+	private static final double ARCSEC = 180 * 3600 / Math.PI;
+	private static final double KM_PER_AU = 149597870.7;
+
+	public static void main(String args[]) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: java astro.Vsop87Benchmark tables [threshold ...]");
+			System.exit(1);
+		}
+
+		final Vsop87 theory = Vsop87.load(args[0]);
+		double[] thresholds = Vsop87Benchmark.THRESHOLDS;
+		if (args.length > 1) {
+			thresholds = new double[args.length - 1];
+			for (int t = 0; t < thresholds.length; t++)
+				thresholds[t] = Double.parseDouble(args[t + 1]);
+		}
+
+		final int bodies = theory.getBodyCount();
+		final double[] taus = new double[Vsop87Benchmark.DATES];
+		for (int d = 0; d < taus.length; d++)
+			taus[d] = Vsop87.toMillennia(Vsop87Benchmark.FIRST_DAY + d
+					* (Vsop87Benchmark.LAST_DAY - Vsop87Benchmark.FIRST_DAY) / (taus.length - 1));
+
+		// The full series, to measure the errors
+		theory.setThreshold(0);
+		final double[][][] exact = new double[bodies][taus.length][3];
+		for (int b = 0; b < bodies; b++)
+			for (int d = 0; d < taus.length; d++)
+				theory.getHeliocentric(b, taus[d], exact[b][d]);
+
+		System.out.println("threshold    terms   us/eval   max error (\", km) per body");
+		final double[] lbr = new double[3];
+		double sink = 0;
+		for (double threshold : thresholds) {
+			theory.setThreshold(threshold);
+			int terms = 0;
+			for (int b = 0; b < bodies; b++)
+				terms += theory.getTermCount(b);
+
+			// Warms up, then times every body at every date
+			final long start = System.nanoTime();
+			int rounds = 0;
+			long elapsed;
+			do {
+				for (int b = 0; b < bodies; b++)
+					for (int d = 0; d < taus.length; d++) {
+						theory.getHeliocentric(b, taus[d], lbr);
+						sink += lbr[0];
+					}
+				rounds++;
+				elapsed = System.nanoTime() - start;
+			} while (elapsed < 1000000000L || rounds < 3);
+			final double perEval = elapsed / 1000.0 / rounds / (bodies * taus.length);
+
+			final StringBuilder errors = new StringBuilder();
+			for (int b = 0; b < bodies; b++) {
+				double angle = 0, distance = 0;
+				for (int d = 0; d < taus.length; d++) {
+					theory.getHeliocentric(b, taus[d], lbr);
+					angle = Math.max(angle, Vsop87Benchmark.separation(exact[b][d], lbr));
+					distance = Math.max(distance, Math.abs(exact[b][d][Vsop87.R] - lbr[Vsop87.R]));
+				}
+				errors.append(String.format("  %s %.3g\" %.3g km", theory.getName(b),
+						angle * Vsop87Benchmark.ARCSEC, distance * Vsop87Benchmark.KM_PER_AU));
+			}
+			System.out.println(String.format("%-9.0e %8d %9.2f", threshold, terms, perEval) + errors);
+		}
+
+		// A whole update of the Solar System, as done for every new date
+		final Date date = new Date(0, 0);
+		System.out.println();
+		for (double threshold : thresholds) {
+			theory.setThreshold(threshold);
+			System.out.println(String.format("update with VSOP87 at %-7.0e %9.2f us", threshold,
+					Vsop87Benchmark.timeUpdate(new SolarSystemInfo(0, 0, 0, date, theory))));
+		}
+		System.out.println(String.format("update with the orbital elements %9.2f us",
+				Vsop87Benchmark.timeUpdate(new SolarSystemInfo(0, 0, 0, date, null))));
+
+		// Keeps the evaluations from being optimized away
+		if (sink == 0.5)
+			System.out.println();
+	}
+
+	/**
+	 * Returns the angle between two close directions, acos() being too
+	 * coarse for them
+	 */
+	private static double separation(double[] lbr1, double[] lbr2) {
+		double dL = Math.abs(lbr1[Vsop87.L] - lbr2[Vsop87.L]);
+		if (dL > Math.PI)
+			dL = 2 * Math.PI - dL;
+		dL *= Math.cos(lbr1[Vsop87.B]);
+		final double dB = lbr1[Vsop87.B] - lbr2[Vsop87.B];
+		return Math.sqrt(dL * dL + dB * dB);
+	}
+
+	/**
+	 * Returns the time taken by an update of all the objects, in us
+	 */
+	private static double timeUpdate(SolarSystemInfo info) {
+		final long start = System.nanoTime();
+		int rounds = 0;
+		long elapsed;
+		do {
+			info.update(Vsop87Benchmark.FIRST_DAY + rounds * 0.37, 0);
+			rounds++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < 1000000000L || rounds < 3);
+		return elapsed / 1000.0 / rounds;
+	}
+}
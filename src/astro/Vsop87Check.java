@@ -0,0 +1,92 @@
+package astro;
+
+import astro.util.Date;
+
+/**
+ * Checks {@link Vsop87} and {@link Vsop87PlanetData} against the worked
+ * examples of J. Meeus, Astronomical Algorithms (2nd ed.):
+ *
+ * <ul>
+ * <li>25.b, the heliocentric position of the Earth on 1992 Oct 13, 0h TD
+ * <li>32.a, those of Venus and of the Earth on 1992 Dec 20, 0h TD
+ * <li>33.a, the geocentric position of Venus at the same date, corrected for
+ * the light time and brought to FK5
+ * </ul>
+ *
+ * The heliocentric positions are compared to the digits given by the
+ * examples. The geocentric one is only required within 1", the examples
+ * using the complete theory while data/vsop87d-meeus.bin holds the
+ * truncated series of the appendix of the book.
+ *
+ * Usage: java astro.Vsop87Check [tables]
+ *
+ * Exits with 1 if a value is off.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class Vsop87Check {
+
+	private static final String DEFAULT_TABLES = "data/vsop87d-meeus.bin";
+	// Julian day of the day number 0
+	private static final double JD_DAY_ZERO = 2451543.5;
+	private static final double RADS = Math.PI / 180;
+
+	private static boolean failed = false;
+
+	public static void main(String args[]) throws Exception {
+		final Vsop87 theory = Vsop87.load(args.length > 0 ? args[0] : Vsop87Check.DEFAULT_TABLES);
+		final double[] lbr = new double[3];
+
+		// 25.b, 1992 Oct 13
+		double tau = Vsop87.toMillennia(2448908.5 - Vsop87Check.JD_DAY_ZERO);
+		theory.getHeliocentric(theory.indexOf("EARTH"), tau, lbr);
+		Vsop87Check.check("25.b Earth L (deg)", lbr[Vsop87.L] / Vsop87Check.RADS, 19.907372, 0.000001);
+		Vsop87Check.check("25.b Earth B (rad)", lbr[Vsop87.B], -0.00000312, 0.000000005);
+		Vsop87Check.check("25.b Earth R (AU)", lbr[Vsop87.R], 0.99760775, 0.000000005);
+
+		// 32.a, 1992 Dec 20
+		final double dayNumber = 2448976.5 - Vsop87Check.JD_DAY_ZERO;
+		tau = Vsop87.toMillennia(dayNumber);
+		theory.getHeliocentric(theory.indexOf("VENUS"), tau, lbr);
+		Vsop87Check.check("32.a Venus L (deg)", lbr[Vsop87.L] / Vsop87Check.RADS, 26.11428, 0.000005);
+		Vsop87Check.check("32.a Venus B (deg)", lbr[Vsop87.B] / Vsop87Check.RADS, -2.62070, 0.000005);
+		Vsop87Check.check("32.a Venus R (AU)", lbr[Vsop87.R], 0.724603, 0.0000005);
+		theory.getHeliocentric(theory.indexOf("EARTH"), tau, lbr);
+		Vsop87Check.check("32.a Earth L (deg)", lbr[Vsop87.L] / Vsop87Check.RADS, 88.35704, 0.000005);
+		Vsop87Check.check("32.a Earth B (deg)", lbr[Vsop87.B] / Vsop87Check.RADS, 0.00014, 0.000005);
+		Vsop87Check.check("32.a Earth R (AU)", lbr[Vsop87.R], 0.983824, 0.0000005);
+
+		// 33.a, the ecliptic coordinates are found again from RA and Dec with
+		// the obliquity used to compute them
+		final SolarSystemInfo info = new SolarSystemInfo(0, 0, 0, new Date(1992, 12, 20, 0, 0, 0), theory);
+		info.update(dayNumber, 0);
+		final ObjectData venus = info.getObjects().get(BodyModel.VENUS.ordinal());
+		if (!(venus instanceof Vsop87PlanetData)) {
+			System.out.println("Venus is not computed from the tables");
+			System.exit(1);
+		}
+		final double oblEcl = venus.computeOblEcl(dayNumber);
+		final double x = Math.cos(venus.getDec()) * Math.cos(venus.getRA());
+		final double y = Math.cos(venus.getDec()) * Math.sin(venus.getRA());
+		final double z = Math.sin(venus.getDec());
+		final double lon = Date.rev(Math.atan2(y * Math.cos(oblEcl) + z * Math.sin(oblEcl), x) / Vsop87Check.RADS);
+		final double lat = Math.asin(z * Math.cos(oblEcl) - y * Math.sin(oblEcl)) / Vsop87Check.RADS;
+		// The geometric position of the example plus its FK5 correction
+		Vsop87Check.check("33.a Venus lambda (deg)", lon, 313.08102 - 0.09027 / 3600, 1.0 / 3600);
+		Vsop87Check.check("33.a Venus beta (deg)", lat, -2.08474 + 0.05535 / 3600, 1.0 / 3600);
+		Vsop87Check.check("33.a Venus distance (AU)", venus.getRg(), 0.910947, 0.0000005);
+
+		if (Vsop87Check.failed)
+			System.exit(1);
+	}
+
+	private static void check(String name, double value, double expected, double tolerance) {
+		final boolean passed = Math.abs(value - expected) <= tolerance;
+		System.out.println(String.format("%-26s %16.9f  expected %16.9f  %s", name, value, expected,
+				passed ? "ok" : "FAILED"));
+		if (!passed)
+			Vsop87Check.failed = true;
+	}
+}
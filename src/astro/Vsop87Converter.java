@@ -0,0 +1,175 @@
+package astro;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+
+/**
+ * Converts the ASCII files of VSOP87D (VSOP87D.mer, VSOP87D.ven, ...), as
+ * distributed by the IMCCE and the CDS, into the binary tables read by
+ * {@link Vsop87}. The terms of each series are sorted by decreasing
+ * amplitude, so the series can be truncated by keeping their first terms.
+ *
+ * Usage: java astro.Vsop87Converter output VSOP87D.ear VSOP87D.mer ...
+ *
+ * The tables must hold the Earth for the geocentric positions.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class Vsop87Converter {
+
+	// The columns of A, B and C in a term line
+	private static final int A_START = 79, B_START = 97, C_START = 111, C_END = 131;
+
+	/**
+	 * The terms of each power of the three variables of a body
+	 */
+	private static class Body {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		final ArrayList<double[]>[][] series = new ArrayList[3][];
+	}
+
+	private final LinkedHashMap<String, Body> bodies = new LinkedHashMap<String, Body>();
+
+	public static void main(String args[]) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: java astro.Vsop87Converter output VSOP87D.ear VSOP87D.mer ...");
+			System.exit(1);
+		}
+
+		final Vsop87Converter converter = new Vsop87Converter();
+		for (int f = 1; f < args.length; f++)
+			converter.read(args[f]);
+		converter.write(args[0]);
+	}
+
+	/**
+	 * Reads the series of one body
+	 */
+	public void read(String filename) throws IOException {
+		final BufferedReader input = new BufferedReader(new FileReader(filename));
+		try {
+			String line;
+			ArrayList<double[]> terms = null;
+			int remaining = 0, number = 0;
+
+			while ((line = input.readLine()) != null) {
+				number++;
+				if (line.trim().length() == 0)
+					continue;
+				if (line.startsWith(" VSOP87")) {
+					if (remaining != 0)
+						throw new IOException(filename + ":" + number + ": series cut short");
+					terms = new ArrayList<double[]>();
+					remaining = this.readHeader(line, terms, filename + ":" + number);
+					continue;
+				}
+				if (remaining == 0)
+					throw new IOException(filename + ":" + number + ": term outside of a series");
+
+				try {
+					terms.add(new double[] {
+							Double.parseDouble(line.substring(Vsop87Converter.A_START, Vsop87Converter.B_START).trim()),
+							Double.parseDouble(line.substring(Vsop87Converter.B_START, Vsop87Converter.C_START).trim()),
+							Double.parseDouble(line.substring(Vsop87Converter.C_START,
+									Math.min(line.length(), Vsop87Converter.C_END)).trim()) });
+				} catch (RuntimeException e) {
+					throw new IOException(filename + ":" + number + ": bad term " + e);
+				}
+				remaining--;
+			}
+			if (remaining != 0)
+				throw new IOException(filename + ": series cut short");
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads e.g. " VSOP87 VERSION D1    MERCURY   VARIABLE 1 (LBR)  *T**0  1583 TERMS ..."
+	 *
+	 * @return the number of terms of the series
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int readHeader(String line, ArrayList<double[]> terms, String where) throws IOException {
+		final String[] tokens = line.trim().split("\\s+");
+		if (tokens.length < 4 || !tokens[2].startsWith("D"))
+			throw new IOException(where + ": not a VSOP87D series");
+
+		int variable = -1, power = -1, count = -1;
+		for (int t = 0; t < tokens.length; t++) {
+			if (tokens[t].equals("VARIABLE") && t + 1 < tokens.length)
+				variable = Integer.parseInt(tokens[t + 1]) - 1;
+			else if (tokens[t].startsWith("*T**"))
+				power = Integer.parseInt(tokens[t].substring(4));
+			else if (tokens[t].equals("TERMS") && t > 0)
+				count = Integer.parseInt(tokens[t - 1]);
+		}
+		if (variable < 0 || variable > 2 || power < 0 || count <= 0)
+			throw new IOException(where + ": bad header");
+
+		Body body = this.bodies.get(tokens[3]);
+		if (body == null) {
+			body = new Body();
+			this.bodies.put(tokens[3], body);
+		}
+		if (body.series[variable] == null || body.series[variable].length <= power)
+			body.series[variable] = Arrays.copyOf(body.series[variable] == null ?
+					new ArrayList[0] : body.series[variable], power + 1);
+		body.series[variable][power] = terms;
+		return count;
+	}
+
+	/**
+	 * Writes the tables of all the bodies read
+	 */
+	public void write(String filename) throws IOException {
+		final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(filename)));
+		final Comparator<double[]> byAmplitude = new Comparator<double[]>() {
+			@Override
+			public int compare(double[] t1, double[] t2) {
+				return Double.compare(Math.abs(t2[0]), Math.abs(t1[0]));
+			}
+		};
+		int terms = 0;
+
+		try {
+			output.writeInt(Vsop87.MAGIC);
+			output.writeInt(Vsop87.VERSION);
+			output.writeInt(this.bodies.size());
+			for (String name : this.bodies.keySet()) {
+				final Body body = this.bodies.get(name);
+				output.writeUTF(name);
+				for (int v = 0; v < 3; v++) {
+					if (body.series[v] == null)
+						throw new IOException(name + ": variable " + (v + 1) + " is missing");
+					output.writeInt(body.series[v].length);
+					for (ArrayList<double[]> series : body.series[v]) {
+						if (series == null)
+							series = new ArrayList<double[]>();
+						Collections.sort(series, byAmplitude);
+						output.writeInt(series.size());
+						for (double[] term : series)
+							for (int t = 0; t < Vsop87.TERM_SIZE; t++)
+								output.writeDouble(term[t]);
+						terms += series.size();
+					}
+				}
+			}
+		} finally {
+			output.close();
+		}
+		System.out.println(filename + ": " + this.bodies.size() + " bodies, " + terms + " terms");
+	}
+}
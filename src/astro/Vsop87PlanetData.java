@@ -0,0 +1,112 @@
+package astro;
+
+/**
+ * A planet whose position comes from the VSOP87 series instead of its
+ * orbital elements. The ephemerides, the magnitude and the rise and set
+ * times are computed as for {@link PlanetData}, the distance to the Sun
+ * being that of the Earth in the same series, so the triangle giving the
+ * elongation and the phase is closed. The rise and set times still take
+ * the sidereal time from the elements of the Sun.
+ *
+ * The position is corrected for the light time and brought to the FK5
+ * frame. Aberration and nutation are left out, as for the other objects.
+ * How precise it is depends on the tables, see {@link Vsop87Check}.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class Vsop87PlanetData extends PlanetData {
+
+	// Light time for 1 AU, in days
+	private static final double LIGHT_TIME = 0.0057755183;
+	private static final double ARCSEC = Math.PI / (180 * 3600);
+
+	private Vsop87 theory;
+	private int body;
+	private final double[] planet = new double[3], earth = new double[3];
+
+	Vsop87PlanetData(Vsop87 theory, BodyModel model, double N, double i,
+			double w, double a, double e, double M, final double dayNumber,
+			final double latitude, final double longitude, SunData sun,
+			final double timeDiff) {
+
+		super(model, N, i, w, a, e, M, dayNumber, latitude, longitude, sun, timeDiff);
+
+		this.theory = theory;
+		this.body = theory.indexOf(model.name());
+		this.update(dayNumber, latitude, longitude);
+	}
+
+	@Override
+	protected void computePosition(final double dayNumber) {
+		// The constructor of PlanetData runs before the tables are set
+		if (this.theory == null) {
+			super.computePosition(dayNumber);
+			return;
+		}
+
+		final double tau = Vsop87.toMillennia(dayNumber);
+		this.theory.getEarth(tau, this.earth);
+		final double xEarth = Vsop87PlanetData.getX(this.earth);
+		final double yEarth = Vsop87PlanetData.getY(this.earth);
+		final double zEarth = Vsop87PlanetData.getZ(this.earth);
+
+		// Where the planet was when the light seen now left it
+		this.theory.getHeliocentric(this.body, tau, this.planet);
+		double xg = Vsop87PlanetData.getX(this.planet) - xEarth;
+		double yg = Vsop87PlanetData.getY(this.planet) - yEarth;
+		double zg = Vsop87PlanetData.getZ(this.planet) - zEarth;
+		final double distance = Math.sqrt(xg * xg + yg * yg + zg * zg);
+		this.theory.getHeliocentric(this.body, tau - distance
+				* Vsop87PlanetData.LIGHT_TIME / 365250, this.planet);
+
+		this.x = Vsop87PlanetData.getX(this.planet);
+		this.y = Vsop87PlanetData.getY(this.planet);
+		this.z = Vsop87PlanetData.getZ(this.planet);
+		xg = this.x - xEarth;
+		yg = this.y - yEarth;
+		zg = this.z - zEarth;
+
+		// From the dynamical ecliptic of VSOP87 to FK5
+		double lon = Math.atan2(yg, xg);
+		double lat = Math.atan2(zg, Math.sqrt(xg * xg + yg * yg));
+		final double T = 10 * tau;
+		final double lonFK5 = lon - (1.397 * T + 0.00031 * T * T) * Math.PI / 180;
+		lon += (-0.09033 + 0.03916 * (Math.cos(lonFK5) + Math.sin(lonFK5))
+				* Math.tan(lat)) * Vsop87PlanetData.ARCSEC;
+		lat += 0.03916 * (Math.cos(lonFK5) - Math.sin(lonFK5)) * Vsop87PlanetData.ARCSEC;
+
+		this.rh = this.planet[Vsop87.R];
+		this.rg = Math.sqrt(xg * xg + yg * yg + zg * zg);
+
+		final double oblEcl = this.computeOblEcl(dayNumber);
+		final double cosOblEcl = Math.cos(oblEcl), sinOblEcl = Math.sin(oblEcl);
+		final double xe = Math.cos(lon) * Math.cos(lat);
+		final double yl = Math.sin(lon) * Math.cos(lat), zl = Math.sin(lat);
+		final double ye = yl * cosOblEcl - zl * sinOblEcl;
+		final double ze = yl * sinOblEcl + zl * cosOblEcl;
+
+		this.RA = Math.atan2(ye, xe);
+		this.Dec = Math.atan2(ze, Math.sqrt(xe * xe + ye * ye));
+	}
+
+	@Override
+	protected double getSunDistance() {
+		if (this.theory == null)
+			return super.getSunDistance();
+		return this.earth[Vsop87.R];
+	}
+
+	private static double getX(double[] lbr) {
+		return lbr[Vsop87.R] * Math.cos(lbr[Vsop87.B]) * Math.cos(lbr[Vsop87.L]);
+	}
+
+	private static double getY(double[] lbr) {
+		return lbr[Vsop87.R] * Math.cos(lbr[Vsop87.B]) * Math.sin(lbr[Vsop87.L]);
+	}
+
+	private static double getZ(double[] lbr) {
+		return lbr[Vsop87.R] * Math.sin(lbr[Vsop87.B]);
+	}
+}
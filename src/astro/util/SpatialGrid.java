@@ -0,0 +1,107 @@
+package astro.util;
+
+/**
+ * Uniform grid over points of the plane, answering which point is the nearest
+ * to a given position by looking only at the cells around it. The points are
+ * stored cell after cell in flat arrays and the grid never changes once
+ * built, so it can be read by several threads.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SpatialGrid {
+
+	private final float min, cellSize;
+	private final int cells;
+	// Points of cell i are found between start[i] and start[i + 1]
+	private final int[] start;
+	private final int[] ids;
+	private final float[] x, y;
+
+	/**
+	 * Builds the grid
+	 *
+	 * @param extent
+	 *            the grid covers [-extent, extent] on both axes; points
+	 *            outside of it are kept in the border cells
+	 * @param cells
+	 *            the number of cells on each axis
+	 * @param x
+	 *            the X coordinates of the points
+	 * @param y
+	 *            the Y coordinates of the points
+	 * @param ids
+	 *            the id of each point, returned by the queries
+	 * @param count
+	 *            the number of points
+	 */
+	public SpatialGrid(float extent, int cells, float[] x, float[] y, int[] ids, int count) {
+		this.min = -extent;
+		this.cellSize = 2 * extent / cells;
+		this.cells = cells;
+		this.start = new int[cells * cells + 1];
+		this.ids = new int[count];
+		this.x = new float[count];
+		this.y = new float[count];
+
+		// Counting sort of the points by cell
+		final int[] cell = new int[count];
+		for (int i = 0; i < count; i++) {
+			cell[i] = this.cellOf(x[i], y[i]);
+			this.start[cell[i] + 1]++;
+		}
+		for (int i = 0; i < cells * cells; i++)
+			this.start[i + 1] += this.start[i];
+
+		final int[] next = new int[cells * cells];
+		System.arraycopy(this.start, 0, next, 0, next.length);
+		int to;
+		for (int i = 0; i < count; i++) {
+			to = next[cell[i]]++;
+			this.ids[to] = ids[i];
+			this.x[to] = x[i];
+			this.y[to] = y[i];
+		}
+	}
+
+	private int column(float value) {
+		final int column = (int) Math.floor((value - this.min) / this.cellSize);
+		return Math.max(0, Math.min(this.cells - 1, column));
+	}
+
+	private int cellOf(float x, float y) {
+		return this.column(y) * this.cells + this.column(x);
+	}
+
+	/**
+	 * Returns the id of the point nearest to a position, or -1 if there is no
+	 * point within the given distance
+	 */
+	public int nearest(float x, float y, float radius) {
+		final int column0 = this.column(x - radius), column1 = this.column(x + radius);
+		final int row0 = this.column(y - radius), row1 = this.column(y + radius);
+		float best = radius * radius, dx, dy, distance;
+		int found = -1, cell;
+
+		for (int row = row0; row <= row1; row++) {
+			for (int column = column0; column <= column1; column++) {
+				cell = row * this.cells + column;
+				for (int i = this.start[cell]; i < this.start[cell + 1]; i++) {
+					dx = this.x[i] - x;
+					dy = this.y[i] - y;
+					distance = dx * dx + dy * dy;
+					if (distance <= best) {
+						best = distance;
+						found = this.ids[i];
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	public int size() {
+		return this.ids.length;
+	}
+}
@@ -0,0 +1,120 @@
+package render;
+
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLException;
+
+/**
+ * A vertex and a fragment shader linked together
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class GLSLProgram {
+
+	private int id;
+
+	/**
+	 * Compiles and links the shaders
+	 *
+	 * @param gl
+	 * @param vertexSource
+	 *            the source of the vertex shader
+	 * @param fragmentSource
+	 *            the source of the fragment shader
+	 * @throws GLException
+	 *             if the shaders cannot be compiled or linked
+	 */
+	public GLSLProgram(GL2ES2 gl, String vertexSource, String fragmentSource) {
+		this(gl, vertexSource, fragmentSource, null);
+	}
+
+	/**
+	 * Compiles and links the shaders, binding the given attributes to the
+	 * locations 0, 1, ... in this order
+	 *
+	 * @param gl
+	 * @param vertexSource
+	 *            the source of the vertex shader
+	 * @param fragmentSource
+	 *            the source of the fragment shader
+	 * @param attributes
+	 *            the names of the attributes or null
+	 * @throws GLException
+	 *             if the shaders cannot be compiled or linked
+	 */
+	public GLSLProgram(GL2ES2 gl, String vertexSource, String fragmentSource,
+			String[] attributes) {
+		final int vertex = GLSLProgram.compile(gl, GL2ES2.GL_VERTEX_SHADER, vertexSource);
+		final int fragment = GLSLProgram.compile(gl, GL2ES2.GL_FRAGMENT_SHADER, fragmentSource);
+
+		this.id = gl.glCreateProgram();
+		gl.glAttachShader(this.id, vertex);
+		gl.glAttachShader(this.id, fragment);
+		if (attributes != null)
+			for (int i = 0; i < attributes.length; i++)
+				gl.glBindAttribLocation(this.id, i, attributes[i]);
+		gl.glLinkProgram(this.id);
+		// The shaders are freed together with the program
+		gl.glDeleteShader(vertex);
+		gl.glDeleteShader(fragment);
+
+		final int[] status = new int[1];
+		gl.glGetProgramiv(this.id, GL2ES2.GL_LINK_STATUS, status, 0);
+		if (status[0] == 0) {
+			final String log = GLSLProgram.getProgramLog(gl, this.id);
+			gl.glDeleteProgram(this.id);
+			this.id = 0;
+			throw new GLException("Cannot link the shaders: " + log);
+		}
+	}
+
+	private static int compile(GL2ES2 gl, int type, String source) {
+		final int shader = gl.glCreateShader(type);
+		gl.glShaderSource(shader, 1, new String[] { source }, null, 0);
+		gl.glCompileShader(shader);
+
+		final int[] status = new int[1];
+		gl.glGetShaderiv(shader, GL2ES2.GL_COMPILE_STATUS, status, 0);
+		if (status[0] == 0) {
+			final int[] length = new int[1];
+			gl.glGetShaderiv(shader, GL2ES2.GL_INFO_LOG_LENGTH, length, 0);
+			final byte[] log = new byte[Math.max(length[0], 1)];
+			gl.glGetShaderInfoLog(shader, log.length, null, 0, log, 0);
+			gl.glDeleteShader(shader);
+			throw new GLException("Cannot compile the shader: " + new String(log).trim());
+		}
+		return shader;
+	}
+
+	private static String getProgramLog(GL2ES2 gl, int program) {
+		final int[] length = new int[1];
+		gl.glGetProgramiv(program, GL2ES2.GL_INFO_LOG_LENGTH, length, 0);
+		final byte[] log = new byte[Math.max(length[0], 1)];
+		gl.glGetProgramInfoLog(program, log.length, null, 0, log, 0);
+		return new String(log).trim();
+	}
+
+	public int getAttribLocation(GL2ES2 gl, String name) {
+		return gl.glGetAttribLocation(this.id, name);
+	}
+
+	public int getUniformLocation(GL2ES2 gl, String name) {
+		return gl.glGetUniformLocation(this.id, name);
+	}
+
+	public void use(GL2ES2 gl) {
+		gl.glUseProgram(this.id);
+	}
+
+	public void release(GL2ES2 gl) {
+		gl.glUseProgram(0);
+	}
+
+	public void delete(GL2ES2 gl) {
+		if (this.id != 0) {
+			gl.glDeleteProgram(this.id);
+			this.id = 0;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package render;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+
+/**
+ * A {@link VertexBuffer} whose primitives are sorted by the cell of a uniform
+ * grid over the map holding their center. The primitives of the cells of a
+ * row are then contiguous in the buffer, so drawing the part of the map seen
+ * in the window takes one range per row of cells, and the primitives outside
+ * of the window are not sent at all.
+ *
+ * A primitive is drawn if its cell touches the visible rectangle enlarged by
+ * the half size of the largest primitive of the buffer, so that a segment
+ * crossing the window is never missed.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class GridBuffer {
+
+	// The map fits in the unit circle
+	private static final float EXTENT = 1;
+	private static final int CELLS = 32;
+	private static final float CELL_SIZE = 2 * GridBuffer.EXTENT / GridBuffer.CELLS;
+
+	private final int components, vertices;
+	private final VertexBuffer buffer;
+
+	// The primitives written since begin(), before sorting
+	private float[] staging = new float[0], sorted = new float[0];
+	private int[] cells = new int[0];
+	// Primitives of cell i are found between start[i] and start[i + 1]
+	private final int[] start = new int[GridBuffer.CELLS * GridBuffer.CELLS + 1];
+	// Half of the largest width and height of a primitive
+	private float marginX = 0, marginY = 0;
+
+	// The ranges of vertices drawn, one per row of cells at most
+	private final int[] first = new int[GridBuffer.CELLS], count = new int[GridBuffer.CELLS];
+
+	/**
+	 * Constructor
+	 *
+	 * @param components
+	 *            the number of floats per vertex, the first two being the
+	 *            position
+	 * @param vertices
+	 *            the number of vertices per primitive
+	 */
+	public GridBuffer(int components, int vertices) {
+		this.components = components;
+		this.vertices = vertices;
+		this.buffer = new VertexBuffer(components);
+	}
+
+	/**
+	 * Discards the primitives and returns the array to write the new ones in
+	 *
+	 * @param primitives
+	 *            the maximum number of primitives which will be written
+	 */
+	public float[] begin(int primitives) {
+		final int floats = primitives * this.vertices * this.components;
+		if (this.staging.length < floats)
+			this.staging = new float[Math.max(floats, this.staging.length * 2)];
+		return this.staging;
+	}
+
+	/**
+	 * Sorts the primitives written since {@link #begin(int)} by cell and sends
+	 * them to the GPU
+	 *
+	 * @param primitives
+	 *            the number of primitives written
+	 */
+	public void upload(GL gl, int primitives) {
+		final int size = this.vertices * this.components;
+		if (this.cells.length < primitives) {
+			this.cells = new int[this.staging.length / size];
+			this.sorted = new float[this.staging.length];
+		}
+		final int[] cell = this.cells;
+		float minX, minY, maxX, maxY, x, y;
+		this.marginX = 0;
+		this.marginY = 0;
+
+		// Counting sort of the primitives by cell
+		Arrays.fill(this.start, 0);
+		for (int i = 0; i < primitives; i++) {
+			minX = minY = Float.MAX_VALUE;
+			maxX = maxY = -Float.MAX_VALUE;
+			for (int v = 0; v < this.vertices; v++) {
+				x = this.staging[i * size + v * this.components];
+				y = this.staging[i * size + v * this.components + 1];
+				minX = Math.min(minX, x);
+				maxX = Math.max(maxX, x);
+				minY = Math.min(minY, y);
+				maxY = Math.max(maxY, y);
+			}
+			this.marginX = Math.max(this.marginX, (maxX - minX) / 2);
+			this.marginY = Math.max(this.marginY, (maxY - minY) / 2);
+			cell[i] = GridBuffer.row((minY + maxY) / 2) * GridBuffer.CELLS + GridBuffer.column((minX + maxX) / 2);
+			this.start[cell[i] + 1]++;
+		}
+		for (int i = 0; i < GridBuffer.CELLS * GridBuffer.CELLS; i++)
+			this.start[i + 1] += this.start[i];
+
+		final int[] next = Arrays.copyOf(this.start, GridBuffer.CELLS * GridBuffer.CELLS);
+		for (int i = 0; i < primitives; i++)
+			System.arraycopy(this.staging, i * size, this.sorted, (next[cell[i]]++) * size, size);
+		final FloatBuffer data = this.buffer.begin(primitives * this.vertices);
+		data.put(this.sorted, 0, primitives * size);
+		this.buffer.upload(gl);
+	}
+
+	private static int column(float value) {
+		final int column = (int) Math.floor((value + GridBuffer.EXTENT) / GridBuffer.CELL_SIZE);
+		return Math.max(0, Math.min(GridBuffer.CELLS - 1, column));
+	}
+
+	private static int row(float value) {
+		return GridBuffer.column(value);
+	}
+
+	/**
+	 * Draws the primitives seen in a rectangle of the map. The buffer must be
+	 * bound and the vertex pointers set.
+	 *
+	 * @param mode
+	 *            the kind of primitives, e.g. GL_LINES
+	 */
+	public void draw(GL2 gl, int mode, float minX, float minY, float maxX, float maxY) {
+		if (this.buffer.getCount() == 0 || maxX < minX || maxY < minY)
+			return;
+
+		final int column0 = GridBuffer.column(minX - this.marginX);
+		final int column1 = GridBuffer.column(maxX + this.marginX);
+		final int row0 = GridBuffer.row(minY - this.marginY);
+		final int row1 = GridBuffer.row(maxY + this.marginY);
+
+		int ranges = 0, from, to;
+		for (int row = row0; row <= row1; row++) {
+			from = this.start[row * GridBuffer.CELLS + column0] * this.vertices;
+			to = this.start[row * GridBuffer.CELLS + column1 + 1] * this.vertices;
+			if (from == to)
+				continue;
+			// Whole rows follow each other in the buffer
+			if (ranges > 0 && this.first[ranges - 1] + this.count[ranges - 1] == from) {
+				this.count[ranges - 1] += to - from;
+			} else {
+				this.first[ranges] = from;
+				this.count[ranges++] = to - from;
+			}
+		}
+
+		if (ranges == 1)
+			gl.glDrawArrays(mode, this.first[0], this.count[0]);
+		else if (ranges > 1)
+			gl.glMultiDrawArrays(mode, this.first, 0, this.count, 0, ranges);
+	}
+
+	public void bind(GL gl) {
+		this.buffer.bind(gl);
+	}
+
+	public void unbind(GL gl) {
+		this.buffer.unbind(gl);
+	}
+
+	/**
+	 * Returns the number of vertices uploaded
+	 */
+	public int getCount() {
+		return this.buffer.getCount();
+	}
+
+	/**
+	 * Returns the size in bytes of a vertex
+	 */
+	public int getStride() {
+		return this.buffer.getStride();
+	}
+
+	/**
+	 * Releases the GPU storage
+	 */
+	public void delete(GL gl) {
+		this.buffer.delete(gl);
+	}
+}
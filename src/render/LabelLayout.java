@@ -0,0 +1,310 @@
+package render;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+
+import astro.SkySnapshot;
+
+/**
+ * Chooses which names are written on the map. The candidates are placed one
+ * after the other, the Solar System objects first, then the constellations,
+ * then the Messier objects and the named stars from the brightest to the
+ * faintest.
+ * A label is kept only if the cells it covers in a grid over the window are
+ * still free, and at most a given number of labels are kept. How many are
+ * drawn then depends on the size of the window, not on the size of the
+ * catalogs.
+ *
+ * The choice is kept while the view does not change, the same candidates
+ * are visible and the labels do not move by more than a few pixels, only
+ * their positions being updated.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class LabelLayout {
+
+	// The kinds of labels, in the order they are placed
+	private static final int BODY = 0, CONSTELLATION = 1, MESSIER = 2, STAR = 3;
+	private static final float[][] COLORS = {
+		{ 1.0f, 1.0f, 1.0f }, { 0.0f, 0.0f, 1.0f }, { 0.0f, 1.0f, 1.0f }, { 1.0f, 1.0f, 1.0f } };
+
+	// Size in pixels of the cells of the occupancy grid
+	private static final int CELL = 4;
+	// The labels are placed again if one of them moved more than this, in pixels
+	private static final double MAX_DRIFT = 2;
+
+	private final TextRenderer text;
+	private final int budget;
+
+	// The labels kept: kind, index in their catalog and position in pixels
+	// when they were placed
+	private final int[] kinds, indexes;
+	private final double[] placedX, placedY;
+	private int count = 0;
+	private boolean valid = false;
+
+	// Number and hash of the visible candidates, when last collected and when
+	// the labels were placed
+	private int candidateCount = 0, placedCount = -1;
+	private long candidateHash = 0, placedHash = 0;
+
+	// The view the labels were placed for
+	private double originX, originY, pixelWidth, pixelHeight;
+	private int width, height;
+	private long version = -1;
+
+	private final BitSet occupied = new BitSet();
+
+	/**
+	 * Constructor
+	 *
+	 * @param text
+	 *            the renderer the labels are written with
+	 * @param budget
+	 *            the maximum number of labels drawn
+	 */
+	public LabelLayout(TextRenderer text, int budget) {
+		this.text = text;
+		this.budget = budget;
+		this.kinds = new int[budget];
+		this.indexes = new int[budget];
+		this.placedX = new double[budget];
+		this.placedY = new double[budget];
+	}
+
+	/**
+	 * Forces the labels to be placed again, e.g. after the kinds of labels
+	 * shown changed
+	 */
+	public void invalidate() {
+		this.valid = false;
+	}
+
+	/**
+	 * Adds the chosen labels to the text renderer, placing them first if the
+	 * view or the sky changed too much. The labels are placed for the view
+	 * given to {@link TextRenderer#begin}.
+	 *
+	 * @param width
+	 *            the width of the window in pixels
+	 * @param height
+	 *            the height of the window in pixels
+	 */
+	public void draw(SkySnapshot sky, int width, int height) {
+		final double originX = this.text.getOriginX(), originY = this.text.getOriginY();
+		final double pixelWidth = this.text.getPixelWidth(), pixelHeight = this.text.getPixelHeight();
+		if (!this.valid || originX != this.originX || originY != this.originY
+				|| pixelWidth != this.pixelWidth || pixelHeight != this.pixelHeight
+				|| width != this.width || height != this.height
+				|| (sky.getVersion() != this.version
+						&& (this.candidatesChanged(sky) || this.hasDrifted(sky)))) {
+			this.originX = originX;
+			this.originY = originY;
+			this.pixelWidth = pixelWidth;
+			this.pixelHeight = pixelHeight;
+			this.width = width;
+			this.height = height;
+			this.place(sky);
+			this.valid = true;
+		}
+		this.version = sky.getVersion();
+
+		float[] color;
+		for (int i = 0; i < this.count; i++) {
+			color = LabelLayout.COLORS[this.kinds[i]];
+			this.text.add(LabelLayout.getName(sky, this.kinds[i], this.indexes[i]),
+					LabelLayout.getX(sky, this.kinds[i], this.indexes[i]),
+					LabelLayout.getY(sky, this.kinds[i], this.indexes[i]),
+					color[0], color[1], color[2]);
+		}
+	}
+
+	/**
+	 * Returns true if objects appeared or disappeared among the candidates.
+	 * Unlike the drift of the labels kept, this also catches the objects
+	 * coming into view when fewer labels than the budget, or none, were kept.
+	 */
+	private boolean candidatesChanged(SkySnapshot sky) {
+		this.collect(sky, null);
+		return this.candidateCount != this.placedCount || this.candidateHash != this.placedHash;
+	}
+
+	/**
+	 * Returns true if a label kept is no longer visible or moved too much
+	 */
+	private boolean hasDrifted(SkySnapshot sky) {
+		int kind, index;
+		for (int i = 0; i < this.count; i++) {
+			kind = this.kinds[i];
+			index = this.indexes[i];
+			if (!LabelLayout.isVisible(sky, kind, index)
+					|| Math.abs(this.toPixelX(LabelLayout.getX(sky, kind, index)) - this.placedX[i]) > LabelLayout.MAX_DRIFT
+					|| Math.abs(this.toPixelY(LabelLayout.getY(sky, kind, index)) - this.placedY[i]) > LabelLayout.MAX_DRIFT)
+				return true;
+		}
+		return false;
+	}
+
+	private void place(final SkySnapshot sky) {
+		// The candidates, as kind and index packed in a long
+		final ArrayList<Long> candidates = new ArrayList<Long>();
+		this.collect(sky, candidates);
+		this.placedCount = this.candidateCount;
+		this.placedHash = this.candidateHash;
+
+		Collections.sort(candidates, new Comparator<Long>() {
+			public int compare(Long a, Long b) {
+				final int kindA = LabelLayout.kindOf(a), kindB = LabelLayout.kindOf(b);
+				if (kindA != kindB)
+					return kindA - kindB;
+				return Double.compare(LabelLayout.getMag(sky, kindA, LabelLayout.indexOf(a)),
+						LabelLayout.getMag(sky, kindB, LabelLayout.indexOf(b)));
+			}
+		});
+
+		final int columns = (this.width + LabelLayout.CELL - 1) / LabelLayout.CELL;
+		final int rows = (this.height + LabelLayout.CELL - 1) / LabelLayout.CELL;
+		final int above = this.text.getHeight() - this.text.getDescent();
+		this.occupied.clear();
+		this.count = 0;
+
+		int kind, index, column0, column1, row0, row1;
+		double x, y;
+		for (Long candidate : candidates) {
+			if (this.count == this.budget)
+				break;
+			kind = LabelLayout.kindOf(candidate);
+			index = LabelLayout.indexOf(candidate);
+			x = this.toPixelX(LabelLayout.getX(sky, kind, index));
+			y = this.toPixelY(LabelLayout.getY(sky, kind, index));
+
+			// The rectangle of the label in cells, the rows from the bottom
+			column0 = (int) Math.floor(x / LabelLayout.CELL);
+			column1 = (int) Math.floor((x + this.text.getWidth(LabelLayout.getName(sky, kind, index))) / LabelLayout.CELL);
+			row0 = (int) Math.floor((y - this.text.getDescent()) / LabelLayout.CELL);
+			row1 = (int) Math.floor((y + above) / LabelLayout.CELL);
+			// Labels out of the window take no place and are not drawn
+			if (column1 < 0 || row1 < 0 || column0 >= columns || row0 >= rows)
+				continue;
+			column0 = Math.max(column0, 0);
+			column1 = Math.min(column1, columns - 1);
+			row0 = Math.max(row0, 0);
+			row1 = Math.min(row1, rows - 1);
+
+			if (this.isFree(columns, column0, column1, row0, row1)) {
+				for (int row = row0; row <= row1; row++)
+					this.occupied.set(row * columns + column0, row * columns + column1 + 1);
+				this.kinds[this.count] = kind;
+				this.indexes[this.count] = index;
+				this.placedX[this.count] = x;
+				this.placedY[this.count] = y;
+				this.count++;
+			}
+		}
+	}
+
+	private boolean isFree(int columns, int column0, int column1, int row0, int row1) {
+		int next;
+		for (int row = row0; row <= row1; row++) {
+			next = this.occupied.nextSetBit(row * columns + column0);
+			if (next != -1 && next <= row * columns + column1)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Counts and hashes the visible candidates, adding them to a list if one
+	 * is given
+	 */
+	private void collect(SkySnapshot sky, ArrayList<Long> candidates) {
+		this.candidateCount = 0;
+		this.candidateHash = 0;
+		for (int j = 0; j < sky.getBodyCount(); j++)
+			if (sky.getBody(j).isVisiblePP())
+				this.addCandidate(candidates, LabelLayout.pack(LabelLayout.BODY, j));
+		this.addPoints(candidates, sky.getConNames(), LabelLayout.CONSTELLATION);
+		this.addPoints(candidates, sky.getMessier(), LabelLayout.MESSIER);
+		this.addPoints(candidates, sky.getStarNames(), LabelLayout.STAR);
+	}
+
+	/**
+	 * Adds the visible points of a catalog
+	 */
+	private void addPoints(ArrayList<Long> candidates, SkySnapshot.Points points, int kind) {
+		for (int j = points.nextVisible(0); j != -1; j = points.nextVisible(j + 1))
+			this.addCandidate(candidates, LabelLayout.pack(kind, j));
+	}
+
+	private void addCandidate(ArrayList<Long> candidates, long candidate) {
+		this.candidateCount++;
+		this.candidateHash = 31 * this.candidateHash + candidate;
+		if (candidates != null)
+			candidates.add(candidate);
+	}
+
+	private double toPixelX(double x) {
+		return (x - this.originX) / this.pixelWidth;
+	}
+
+	private double toPixelY(double y) {
+		return (y - this.originY) / this.pixelHeight;
+	}
+
+	private static long pack(int kind, int index) {
+		return ((long) kind << 32) | index;
+	}
+
+	private static int kindOf(long candidate) {
+		return (int) (candidate >>> 32);
+	}
+
+	private static int indexOf(long candidate) {
+		return (int) candidate;
+	}
+
+	private static SkySnapshot.Points getPoints(SkySnapshot sky, int kind) {
+		switch (kind) {
+		case CONSTELLATION:
+			return sky.getConNames();
+		case MESSIER:
+			return sky.getMessier();
+		default:
+			return sky.getStarNames();
+		}
+	}
+
+	private static String getName(SkySnapshot sky, int kind, int index) {
+		if (kind == LabelLayout.BODY)
+			return sky.getBody(index).getName();
+		return LabelLayout.getPoints(sky, kind).getName(index);
+	}
+
+	private static double getX(SkySnapshot sky, int kind, int index) {
+		if (kind == LabelLayout.BODY)
+			return sky.getBody(index).getXpp();
+		return LabelLayout.getPoints(sky, kind).getX(index);
+	}
+
+	private static double getY(SkySnapshot sky, int kind, int index) {
+		if (kind == LabelLayout.BODY)
+			return sky.getBody(index).getYpp();
+		return LabelLayout.getPoints(sky, kind).getY(index);
+	}
+
+	private static double getMag(SkySnapshot sky, int kind, int index) {
+		if (kind == LabelLayout.BODY)
+			return sky.getBody(index).getMagnitude();
+		return LabelLayout.getPoints(sky, kind).getMag(index);
+	}
+
+	private static boolean isVisible(SkySnapshot sky, int kind, int index) {
+		if (kind == LabelLayout.BODY)
+			return sky.getBody(index).isVisiblePP();
+		return LabelLayout.getPoints(sky, kind).isVisible(index);
+	}
+}
@@ -0,0 +1,153 @@
+package render;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
+
+/**
+ * Keeps a layer of the scene in a texture the size of the window, rendered
+ * through a framebuffer object. While the layer does not change it is only
+ * copied to the window, and what changes every frame is drawn over it.
+ *
+ * If framebuffer objects are not supported {@link #begin(GL2, int, int)}
+ * returns false and the layer has to be drawn directly.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class LayerCache {
+
+	private final int[] framebuffer = new int[1];
+	private final int[] texture = new int[1];
+	private int width = 0, height = 0;
+	private boolean valid = false;
+	private boolean supported = true;
+
+	/**
+	 * Returns true if the layer holds a picture of the size of the window
+	 */
+	public boolean isValid(int width, int height) {
+		return this.valid && width == this.width && height == this.height;
+	}
+
+	/**
+	 * Forces the layer to be drawn again
+	 */
+	public void invalidate() {
+		this.valid = false;
+	}
+
+	/**
+	 * Redirects the drawing to the layer, which is cleared
+	 *
+	 * @return false if the layer cannot be used, in which case nothing has
+	 *         been changed
+	 */
+	public boolean begin(GL2 gl, int width, int height) {
+		if (!this.supported)
+			return false;
+		if (!gl.hasBasicFBOSupport()) {
+			this.supported = false;
+			return false;
+		}
+		if (this.framebuffer[0] == 0 || width != this.width || height != this.height) {
+			if (!this.create(gl, width, height)) {
+				this.delete(gl);
+				this.supported = false;
+				return false;
+			}
+		}
+
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, this.framebuffer[0]);
+		gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+		return true;
+	}
+
+	private boolean create(GL2 gl, int width, int height) {
+		this.delete(gl);
+		this.width = width;
+		this.height = height;
+
+		gl.glGenTextures(1, this.texture, 0);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+		// Copied pixel for pixel
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_NEAREST);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_NEAREST);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+		gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA8, width, height, 0,
+				GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, null);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+
+		gl.glGenFramebuffers(1, this.framebuffer, 0);
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, this.framebuffer[0]);
+		gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0,
+				GL.GL_TEXTURE_2D, this.texture[0], 0);
+		final boolean complete = gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER) == GL.GL_FRAMEBUFFER_COMPLETE;
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, gl.getDefaultDrawFramebuffer());
+		return complete;
+	}
+
+	/**
+	 * Sends the drawing back to the window. The layer is valid from now on.
+	 */
+	public void end(GL2 gl) {
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, gl.getDefaultDrawFramebuffer());
+		this.valid = true;
+	}
+
+	/**
+	 * Copies the layer over the whole viewport
+	 */
+	public void draw(GL2 gl) {
+		gl.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+		gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+
+		gl.glDisable(GL.GL_BLEND);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+		gl.glEnable(GL.GL_TEXTURE_2D);
+		gl.glColor3f(1, 1, 1);
+		gl.glBegin(GL2.GL_QUADS);
+			gl.glTexCoord2f(0, 0);
+			gl.glVertex2f(-1, -1);
+			gl.glTexCoord2f(1, 0);
+			gl.glVertex2f(1, -1);
+			gl.glTexCoord2f(1, 1);
+			gl.glVertex2f(1, 1);
+			gl.glTexCoord2f(0, 1);
+			gl.glVertex2f(-1, 1);
+		gl.glEnd();
+		gl.glDisable(GL.GL_TEXTURE_2D);
+		gl.glEnable(GL.GL_BLEND);
+
+		gl.glPopMatrix();
+		gl.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+		gl.glPopMatrix();
+		gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+	}
+
+	private void delete(GL2 gl) {
+		if (this.framebuffer[0] != 0) {
+			gl.glDeleteFramebuffers(1, this.framebuffer, 0);
+			this.framebuffer[0] = 0;
+		}
+		if (this.texture[0] != 0) {
+			gl.glDeleteTextures(1, this.texture, 0);
+			this.texture[0] = 0;
+		}
+		this.valid = false;
+	}
+
+	/**
+	 * Releases the GPU resources
+	 */
+	public void dispose(GL2 gl) {
+		this.delete(gl);
+		this.supported = true;
+	}
+}
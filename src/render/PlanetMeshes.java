@@ -0,0 +1,189 @@
+package render;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * The sphere and the ring of the Solar System object shown in the information
+ * panel. They are tessellated once, for each level of detail, into vertex
+ * buffers, instead of creating GLU quadrics and drawing them in immediate
+ * mode every frame. The level of detail depends on the size in pixels of the
+ * sphere.
+ *
+ * The sphere is laid out as gluSphere() with texture coordinates, around the
+ * Z axis, so the maps of the planets are placed as before.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class PlanetMeshes {
+
+	// Slices and stacks of each level of detail
+	private static final int[] SLICES = { 16, 32, 64 };
+	// Diameters in pixels below which a level of detail is used
+	private static final int[] MAX_PIXELS = { 64, 192, Integer.MAX_VALUE };
+
+	/**
+	 * Triangle strips held by a vertex buffer, with normals and texture
+	 * coordinates
+	 */
+	private static class Mesh {
+		// Floats per vertex: position, normal, texture coordinates
+		static final int COMPONENTS = 8;
+
+		final VertexBuffer vertices = new VertexBuffer(Mesh.COMPONENTS);
+		final int[] first, count;
+
+		Mesh(int strips) {
+			this.first = new int[strips];
+			this.count = new int[strips];
+		}
+
+		void draw(GL2 gl) {
+			final int stride = this.vertices.getStride();
+			this.vertices.bind(gl);
+			gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+			gl.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+			gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+			gl.glVertexPointer(3, GL.GL_FLOAT, stride, 0);
+			gl.glNormalPointer(GL.GL_FLOAT, stride, 3 * Buffers.SIZEOF_FLOAT);
+			gl.glTexCoordPointer(2, GL.GL_FLOAT, stride, 6 * Buffers.SIZEOF_FLOAT);
+			gl.glMultiDrawArrays(GL.GL_TRIANGLE_STRIP, this.first, 0, this.count, 0, this.first.length);
+			gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+			gl.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+			gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+			this.vertices.unbind(gl);
+		}
+	}
+
+	private final float radius, innerRing, outerRing;
+	// Built the first time they are drawn
+	private final Mesh[] spheres = new Mesh[PlanetMeshes.SLICES.length];
+	private final Mesh[] rings = new Mesh[PlanetMeshes.SLICES.length];
+
+	/**
+	 * Constructor
+	 *
+	 * @param radius
+	 *            the radius of the sphere
+	 * @param innerRing
+	 *            the inner radius of the ring
+	 * @param outerRing
+	 *            the outer radius of the ring
+	 */
+	public PlanetMeshes(float radius, float innerRing, float outerRing) {
+		this.radius = radius;
+		this.innerRing = innerRing;
+		this.outerRing = outerRing;
+	}
+
+	private static int getLevel(int pixels) {
+		int level = 0;
+		while (pixels >= PlanetMeshes.MAX_PIXELS[level])
+			level++;
+		return level;
+	}
+
+	/**
+	 * Draws the sphere, with the texture bound if any
+	 *
+	 * @param pixels
+	 *            the approximate diameter of the sphere on the screen
+	 */
+	public void drawSphere(GL2 gl, int pixels) {
+		final int level = PlanetMeshes.getLevel(pixels);
+		if (this.spheres[level] == null)
+			this.spheres[level] = this.buildSphere(gl, PlanetMeshes.SLICES[level]);
+		this.spheres[level].draw(gl);
+	}
+
+	/**
+	 * Draws the ring, in the plane of the equator of the sphere
+	 *
+	 * @param pixels
+	 *            the approximate diameter of the sphere on the screen
+	 */
+	public void drawRing(GL2 gl, int pixels) {
+		final int level = PlanetMeshes.getLevel(pixels);
+		if (this.rings[level] == null)
+			this.rings[level] = this.buildRing(gl, PlanetMeshes.SLICES[level]);
+		this.rings[level].draw(gl);
+	}
+
+	/**
+	 * Tessellates the sphere as gluSphere() does, one strip per stack
+	 */
+	private Mesh buildSphere(GL gl, int slices) {
+		final int stacks = slices;
+		final Mesh mesh = new Mesh(stacks);
+		final FloatBuffer buffer = mesh.vertices.begin(stacks * (slices + 1) * 2);
+		final double dRho = Math.PI / stacks, dTheta = 2 * Math.PI / slices;
+		double rho, theta;
+
+		for (int i = 0; i < stacks; i++) {
+			mesh.first[i] = i * (slices + 1) * 2;
+			mesh.count[i] = (slices + 1) * 2;
+			for (int j = 0; j <= slices; j++) {
+				theta = (j == slices) ? 0 : j * dTheta;
+				for (int k = 0; k < 2; k++) {
+					rho = (i + k) * dRho;
+					this.putSphereVertex(buffer, rho, theta, (float) j / slices, 1 - (float) (i + k) / stacks);
+				}
+			}
+		}
+		mesh.vertices.upload(gl);
+		return mesh;
+	}
+
+	private void putSphereVertex(FloatBuffer buffer, double rho, double theta, float s, float t) {
+		final float x = (float) (-Math.sin(theta) * Math.sin(rho));
+		final float y = (float) (Math.cos(theta) * Math.sin(rho));
+		final float z = (float) Math.cos(rho);
+		buffer.put(x * this.radius).put(y * this.radius).put(z * this.radius);
+		buffer.put(x).put(y).put(z);
+		buffer.put(s).put(t);
+	}
+
+	/**
+	 * Tessellates the ring as gluDisk() does, facing +Z, in a single strip
+	 */
+	private Mesh buildRing(GL gl, int slices) {
+		final Mesh mesh = new Mesh(1);
+		final FloatBuffer buffer = mesh.vertices.begin((slices + 1) * 2);
+		final double dTheta = 2 * Math.PI / slices;
+		float sin, cos;
+
+		mesh.count[0] = (slices + 1) * 2;
+		for (int j = 0; j <= slices; j++) {
+			sin = (float) Math.sin((j == slices) ? 0 : j * dTheta);
+			cos = (float) Math.cos((j == slices) ? 0 : j * dTheta);
+			buffer.put(this.outerRing * sin).put(this.outerRing * cos).put(0);
+			buffer.put(0).put(0).put(1);
+			buffer.put(0).put(0);
+			buffer.put(this.innerRing * sin).put(this.innerRing * cos).put(0);
+			buffer.put(0).put(0).put(1);
+			buffer.put(0).put(0);
+		}
+		mesh.vertices.upload(gl);
+		return mesh;
+	}
+
+	/**
+	 * Releases the GPU resources
+	 */
+	public void dispose(GL2 gl) {
+		for (int level = 0; level < PlanetMeshes.SLICES.length; level++) {
+			if (this.spheres[level] != null)
+				this.spheres[level].vertices.delete(gl);
+			if (this.rings[level] != null)
+				this.rings[level].vertices.delete(gl);
+			this.spheres[level] = null;
+			this.rings[level] = null;
+		}
+	}
+}
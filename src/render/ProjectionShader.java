@@ -0,0 +1,245 @@
+package render;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+
+import astro.SkyCatalog;
+import astro.SkySegments;
+import astro.StereographicProjection;
+
+/**
+ * Projects the fixed objects on the GPU. The equatorial unit vectors of the
+ * stars and of the line end points are uploaded once. For every frame only
+ * the rotation of the place and time is sent, as a uniform, and the vertex
+ * shaders compute the same (north, east) / (1 + up) mapping as
+ * {@link StereographicProjection}, whatever the size of the catalogs.
+ *
+ * Segments having an end under the horizon are cut at the map contour by the
+ * fragment shader, which gives the same result as the clipping done on the
+ * CPU, or hidden when their store does not clip to the horizon.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class ProjectionShader {
+
+	// Floats per star: unit vector, point size
+	private static final int STAR_COMPONENTS = 4;
+	// Floats per line vertex: unit vector, unit vector of the other end
+	private static final int LINE_COMPONENTS = 6;
+
+	private static final String STAR_VERTEX_SHADER =
+			"#version 120\n"
+			+ "uniform mat3 rotation;\n"
+			+ "attribute vec3 direction;\n"
+			+ "attribute float size;\n"
+			+ "void main() {\n"
+			+ "	vec3 h = rotation * direction;\n"
+			+ "	// Points under the horizon are moved out of the view volume\n"
+			+ "	if (h.z > 0.0)\n"
+			+ "		gl_Position = gl_ModelViewProjectionMatrix * vec4(h.xy / (1.0 + h.z), 0.0, 1.0);\n"
+			+ "	else\n"
+			+ "		gl_Position = vec4(2.0, 2.0, 2.0, 1.0);\n"
+			+ "	gl_PointSize = size;\n"
+			+ "	gl_FrontColor = gl_Color;\n"
+			+ "}\n";
+
+	private static final String LINE_VERTEX_SHADER =
+			"#version 120\n"
+			+ "uniform mat3 rotation;\n"
+			+ "uniform bool clipToHorizon;\n"
+			+ "attribute vec3 direction;\n"
+			+ "attribute vec3 other;\n"
+			+ "varying vec2 position;\n"
+			+ "void main() {\n"
+			+ "	vec3 h = rotation * direction;\n"
+			+ "	float up = (rotation * other).z;\n"
+			+ "	bool hidden = clipToHorizon ? (h.z <= 0.0 && up <= 0.0) : (h.z <= 0.0 || up <= 0.0);\n"
+			+ "	position = h.xy / max(1.0 + h.z, 1e-6);\n"
+			+ "	if (hidden)\n"
+			+ "		gl_Position = vec4(2.0, 2.0, 2.0, 1.0);\n"
+			+ "	else\n"
+			+ "		gl_Position = gl_ModelViewProjectionMatrix * vec4(position, 0.0, 1.0);\n"
+			+ "	gl_FrontColor = gl_Color;\n"
+			+ "}\n";
+
+	// The horizon is the unit circle of the map
+	private static final String LINE_FRAGMENT_SHADER =
+			"#version 120\n"
+			+ "uniform bool clipToHorizon;\n"
+			+ "varying vec2 position;\n"
+			+ "void main() {\n"
+			+ "	if (clipToHorizon && dot(position, position) > 1.0)\n"
+			+ "		discard;\n"
+			+ "	gl_FragColor = gl_Color;\n"
+			+ "}\n";
+
+	private final VertexBuffer stars = new VertexBuffer(ProjectionShader.STAR_COMPONENTS);
+	private final VertexBuffer conLines = new VertexBuffer(ProjectionShader.LINE_COMPONENTS);
+	private final VertexBuffer conBoundaries = new VertexBuffer(ProjectionShader.LINE_COMPONENTS);
+	private final VertexBuffer milkyWay = new VertexBuffer(ProjectionShader.LINE_COMPONENTS);
+	private boolean clipConLines, clipConBoundaries, clipMilkyWay;
+
+	private GLSLProgram starProgram = null, lineProgram = null;
+	private int starRotation, lineRotation, lineClip;
+
+	// The current rotation, column by column as expected by OpenGL
+	private final double[] matrix = new double[9];
+	private final float[] rotation = new float[9];
+
+	/**
+	 * Compiles the shaders and uploads the unit vectors of the fixed objects.
+	 * Must be called from the GL thread.
+	 *
+	 * @throws com.jogamp.opengl.GLException
+	 *             if the shaders are not supported
+	 */
+	public ProjectionShader(GL2 gl, SkyCatalog stars, SkySegments conLines,
+			SkySegments conBoundaries, SkySegments milkyWay) {
+		this.starProgram = new GLSLProgram(gl,
+				ProjectionShader.STAR_VERTEX_SHADER,
+				SkyRenderer.STAR_FRAGMENT_SHADER,
+				new String[] { "direction", "size" });
+		this.starRotation = this.starProgram.getUniformLocation(gl, "rotation");
+
+		this.lineProgram = new GLSLProgram(gl,
+				ProjectionShader.LINE_VERTEX_SHADER,
+				ProjectionShader.LINE_FRAGMENT_SHADER,
+				new String[] { "direction", "other" });
+		this.lineRotation = this.lineProgram.getUniformLocation(gl, "rotation");
+		this.lineClip = this.lineProgram.getUniformLocation(gl, "clipToHorizon");
+
+		final FloatBuffer buffer = this.stars.begin(stars.size());
+		for (int i = 0; i < stars.size(); i++) {
+			buffer.put((float) stars.getUX(i));
+			buffer.put((float) stars.getUY(i));
+			buffer.put((float) stars.getUZ(i));
+			buffer.put(SkyRenderer.getStarSize(stars.getMag(i)));
+		}
+		this.stars.upload(gl);
+
+		ProjectionShader.upload(gl, this.conLines, conLines);
+		ProjectionShader.upload(gl, this.conBoundaries, conBoundaries);
+		ProjectionShader.upload(gl, this.milkyWay, milkyWay);
+		this.clipConLines = conLines.isClipToHorizon();
+		this.clipConBoundaries = conBoundaries.isClipToHorizon();
+		this.clipMilkyWay = milkyWay.isClipToHorizon();
+	}
+
+	private static void upload(GL gl, VertexBuffer vertices, SkySegments segments) {
+		final SkyCatalog points = segments.getPoints();
+		final FloatBuffer buffer = vertices.begin(segments.size() * 2);
+		int from, to;
+
+		for (int i = 0; i < segments.size(); i++) {
+			from = segments.getFrom(i);
+			to = segments.getTo(i);
+			ProjectionShader.put(buffer, points, from);
+			ProjectionShader.put(buffer, points, to);
+			ProjectionShader.put(buffer, points, to);
+			ProjectionShader.put(buffer, points, from);
+		}
+		vertices.upload(gl);
+	}
+
+	private static void put(FloatBuffer buffer, SkyCatalog points, int index) {
+		buffer.put((float) points.getUX(index));
+		buffer.put((float) points.getUY(index));
+		buffer.put((float) points.getUZ(index));
+	}
+
+	/**
+	 * Sets the place and the time the objects are projected for
+	 *
+	 * @param lat
+	 *            the latitude in radians
+	 * @param lst
+	 *            the local sidereal time in radians
+	 */
+	public void setRotation(double lat, double lst) {
+		StereographicProjection.getRotation(lat, lst, this.matrix);
+		// Transposed: OpenGL matrices are stored column by column
+		for (int row = 0; row < 3; row++)
+			for (int column = 0; column < 3; column++)
+				this.rotation[column * 3 + row] = (float) this.matrix[row * 3 + column];
+	}
+
+	/**
+	 * Draws the stars with the current color
+	 */
+	public void drawStars(GL2 gl) {
+		final int stride = this.stars.getStride();
+
+		this.starProgram.use(gl);
+		gl.glUniformMatrix3fv(this.starRotation, 1, false, this.rotation, 0);
+		gl.glEnable(GL2.GL_VERTEX_PROGRAM_POINT_SIZE);
+		gl.glEnable(GL2.GL_POINT_SPRITE);
+
+		this.stars.bind(gl);
+		gl.glEnableVertexAttribArray(0);
+		gl.glEnableVertexAttribArray(1);
+		gl.glVertexAttribPointer(0, 3, GL.GL_FLOAT, false, stride, 0);
+		gl.glVertexAttribPointer(1, 1, GL.GL_FLOAT, false, stride,
+				3 * Buffers.SIZEOF_FLOAT);
+		gl.glDrawArrays(GL.GL_POINTS, 0, this.stars.getCount());
+		gl.glDisableVertexAttribArray(1);
+		gl.glDisableVertexAttribArray(0);
+		this.stars.unbind(gl);
+
+		gl.glDisable(GL2.GL_POINT_SPRITE);
+		gl.glDisable(GL2.GL_VERTEX_PROGRAM_POINT_SIZE);
+		this.starProgram.release(gl);
+	}
+
+	public void drawConLines(GL2 gl) {
+		this.drawLines(gl, this.conLines, this.clipConLines);
+	}
+
+	public void drawConBoundaries(GL2 gl) {
+		this.drawLines(gl, this.conBoundaries, this.clipConBoundaries);
+	}
+
+	public void drawMilkyWay(GL2 gl) {
+		this.drawLines(gl, this.milkyWay, this.clipMilkyWay);
+	}
+
+	/**
+	 * Draws a line layer with the current color and stipple
+	 */
+	private void drawLines(GL2 gl, VertexBuffer lines, boolean clipToHorizon) {
+		final int stride = lines.getStride();
+
+		this.lineProgram.use(gl);
+		gl.glUniformMatrix3fv(this.lineRotation, 1, false, this.rotation, 0);
+		gl.glUniform1i(this.lineClip, clipToHorizon ? 1 : 0);
+
+		lines.bind(gl);
+		gl.glEnableVertexAttribArray(0);
+		gl.glEnableVertexAttribArray(1);
+		gl.glVertexAttribPointer(0, 3, GL.GL_FLOAT, false, stride, 0);
+		gl.glVertexAttribPointer(1, 3, GL.GL_FLOAT, false, stride,
+				3 * Buffers.SIZEOF_FLOAT);
+		gl.glDrawArrays(GL.GL_LINES, 0, lines.getCount());
+		gl.glDisableVertexAttribArray(1);
+		gl.glDisableVertexAttribArray(0);
+		lines.unbind(gl);
+
+		this.lineProgram.release(gl);
+	}
+
+	/**
+	 * Releases the GPU resources
+	 */
+	public void dispose(GL2 gl) {
+		this.stars.delete(gl);
+		this.conLines.delete(gl);
+		this.conBoundaries.delete(gl);
+		this.milkyWay.delete(gl);
+		this.starProgram.delete(gl);
+		this.lineProgram.delete(gl);
+	}
+}
@@ -0,0 +1,138 @@
+package render;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * Draws a canvas only when something changed, instead of as fast as the
+ * driver allows. A frame is drawn when one is requested (input, a new
+ * snapshot of the sky), continuously while an animation runs, and otherwise
+ * once per idle period, e.g. for a clock. Frames are never drawn more often
+ * than the maximum frame rate, and not at all while the loop is paused.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class RenderLoop extends Thread {
+
+	public static final int DEFAULT_MAX_FPS = 40;
+	// How often (in ms) a frame is drawn when nothing happens
+	public static final long DEFAULT_IDLE_PERIOD = 1000;
+
+	private final GLAutoDrawable drawable;
+
+	// Guarded by this
+	private long frameInterval, idlePeriod;
+	private boolean requested = true, animating = false, paused = false;
+
+	private volatile boolean running = true;
+	// When the last frame was started, in ns
+	private long lastFrame = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param drawable
+	 *            the canvas drawn by the loop
+	 */
+	public RenderLoop(GLAutoDrawable drawable) {
+		super("RenderLoop");
+		this.setDaemon(true);
+		this.drawable = drawable;
+		this.setMaxFps(RenderLoop.DEFAULT_MAX_FPS);
+		this.setIdlePeriod(RenderLoop.DEFAULT_IDLE_PERIOD);
+		this.lastFrame = System.nanoTime() - this.idlePeriod;
+	}
+
+	/**
+	 * Sets the maximum number of frames drawn per second
+	 */
+	public synchronized void setMaxFps(int fps) {
+		this.frameInterval = 1000000000L / Math.max(fps, 1);
+		this.notifyAll();
+	}
+
+	/**
+	 * Sets how often a frame is drawn when nothing happens
+	 *
+	 * @param period
+	 *            the period in ms
+	 */
+	public synchronized void setIdlePeriod(long period) {
+		this.idlePeriod = Math.max(period, 1) * 1000000L;
+		this.notifyAll();
+	}
+
+	/**
+	 * Asks for a frame to be drawn as soon as the frame rate allows. May be
+	 * called from any thread.
+	 */
+	public synchronized void requestRender() {
+		this.requested = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Chooses whether frames are drawn continuously, at the maximum frame
+	 * rate
+	 */
+	public synchronized void setAnimating(boolean animating) {
+		this.animating = animating;
+		this.notifyAll();
+	}
+
+	/**
+	 * Stops drawing, e.g. while the window is minimized. A frame is drawn as
+	 * soon as the loop is resumed.
+	 */
+	public synchronized void setPaused(boolean paused) {
+		this.paused = paused;
+		if (!paused)
+			this.requested = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Stops the loop once the current frame is drawn
+	 */
+	public void shutdown() {
+		this.running = false;
+		this.interrupt();
+	}
+
+	@Override
+	public void run() {
+		long now, due;
+
+		while (this.running) {
+			synchronized (this) {
+				try {
+					while (true) {
+						if (this.paused) {
+							this.wait();
+							continue;
+						}
+						now = System.nanoTime();
+						due = this.lastFrame + ((this.requested || this.animating) ? this.frameInterval : this.idlePeriod);
+						if (now - due >= 0)
+							break;
+						// At least 1 ms, wait(0) would never return
+						this.wait(Math.max((due - now) / 1000000L, 1));
+					}
+				} catch (InterruptedException e) {
+					continue;
+				}
+				this.requested = false;
+			}
+
+			this.lastFrame = System.nanoTime();
+			try {
+				this.drawable.display();
+			} catch (GLException e) {
+				// E.g. the canvas is not realized yet, the next frame will tell
+				e.printStackTrace();
+			}
+		}
+	}
+}
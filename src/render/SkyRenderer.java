@@ -0,0 +1,468 @@
+package render;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+import astro.SkyCatalog;
+import astro.SkySegments;
+import astro.SkySnapshot;
+import texture.TextureAtlas;
+
+/**
+ * Retained mode renderer for the geometry of the map. The projected stars and
+ * lines of a snapshot are uploaded into vertex buffers once per snapshot and
+ * every layer is then drawn with a single glDrawArrays call.
+ *
+ * The size of a star depends on its magnitude. It is stored with each vertex
+ * and applied by a small vertex shader. The position still goes through the
+ * fixed function matrices so the zoom and the translation of the scene apply
+ * as before.
+ *
+ * Optionally the stars and the fixed lines are projected on the GPU by a
+ * {@link ProjectionShader}, in which case only the ecliptic is uploaded when
+ * the snapshot changes. The GPU projection is used for the snapshots built
+ * without those objects, see {@link SkySnapshot#isShaderProjection()}.
+ *
+ * When projected on the CPU the stars and the lines are stored in
+ * {@link GridBuffer}s, and only those seen in the rectangle given to
+ * {@link #setView} are drawn, e.g. when zooming in.
+ *
+ * The Messier objects and the Solar System objects are drawn as textured
+ * quads taken from a {@link TextureAtlas}, one draw call for each group.
+ * While the atlas is still loading they are drawn as plain squares.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class SkyRenderer {
+
+	// Floats per star: x, y, point size
+	private static final int STAR_COMPONENTS = 3;
+	// Floats per line vertex: x, y
+	private static final int LINE_COMPONENTS = 2;
+	// Point size used when shaders are not available
+	private static final float DEFAULT_STAR_SIZE = 3;
+	// Floats per icon vertex: x, y, u, v
+	private static final int ICON_COMPONENTS = 4;
+
+	// Half of the side of the icons on the map
+	public static final float MESSIER_SIZE = 0.005f;
+	public static final float BODY_SIZE = 0.01f;
+	// Ids of the Messier objects inside the icon atlas. The Solar System
+	// objects use their index.
+	public static final int MESSIER_ID_OFFSET = 10;
+
+	private static final String STAR_VERTEX_SHADER =
+			"#version 120\n"
+			+ "attribute float size;\n"
+			+ "void main() {\n"
+			+ "	gl_Position = gl_ModelViewProjectionMatrix * gl_Vertex;\n"
+			+ "	gl_PointSize = size;\n"
+			+ "	gl_FrontColor = gl_Color;\n"
+			+ "}\n";
+
+	// Draws round points
+	static final String STAR_FRAGMENT_SHADER =
+			"#version 120\n"
+			+ "void main() {\n"
+			+ "	vec2 d = gl_PointCoord - vec2(0.5);\n"
+			+ "	if (dot(d, d) > 0.25)\n"
+			+ "		discard;\n"
+			+ "	gl_FragColor = gl_Color;\n"
+			+ "}\n";
+
+	private final GridBuffer stars = new GridBuffer(SkyRenderer.STAR_COMPONENTS, 1);
+	private final GridBuffer conLines = new GridBuffer(SkyRenderer.LINE_COMPONENTS, 2);
+	private final GridBuffer conBoundaries = new GridBuffer(SkyRenderer.LINE_COMPONENTS, 2);
+	private final GridBuffer milkyWay = new GridBuffer(SkyRenderer.LINE_COMPONENTS, 2);
+	private final VertexBuffer ecliptic = new VertexBuffer(SkyRenderer.LINE_COMPONENTS);
+	// The Messier quads followed by the Solar System quads
+	private final VertexBuffer icons = new VertexBuffer(SkyRenderer.ICON_COMPONENTS);
+	private int messierIcons = 0, bodyIcons = 0;
+	private TextureAtlas atlas = null;
+	// False while the icons are drawn as placeholders
+	private boolean iconsTextured = false;
+
+	private GLSLProgram starProgram = null;
+	private int sizeAttribute = -1;
+
+	// The rectangle of the map seen in the window
+	private float viewMinX = -Float.MAX_VALUE, viewMinY = -Float.MAX_VALUE;
+	private float viewMaxX = Float.MAX_VALUE, viewMaxY = Float.MAX_VALUE;
+
+	// The version of the snapshot held by the buffers
+	private long version = -1;
+
+	// The fixed objects projected by the shaders, if supported
+	private SkyCatalog staticStars = null;
+	private SkySegments staticConLines, staticConBoundaries, staticMilkyWay;
+	private ProjectionShader projection = null;
+	// Requested by the user interface, to be passed on to the thread
+	// computing the sky
+	private volatile boolean shaderProjection = false;
+	// Whether the current frame is drawn with the GPU projection
+	private boolean gpu = false;
+
+	/**
+	 * Sets the catalogs used when the fixed objects are projected on the GPU.
+	 * Only the static columns of the catalogs (unit vectors, magnitudes and
+	 * segment ends) are read. Must be called before {@link #init(GL2)}.
+	 */
+	public void setCatalogs(SkyCatalog stars, SkySegments conLines,
+			SkySegments conBoundaries, SkySegments milkyWay) {
+		this.staticStars = stars;
+		this.staticConLines = conLines;
+		this.staticConBoundaries = conBoundaries;
+		this.staticMilkyWay = milkyWay;
+	}
+
+	/**
+	 * Sets the atlas holding the icons of the Messier and Solar System objects
+	 */
+	public void setIcons(TextureAtlas atlas) {
+		this.atlas = atlas;
+		this.iconsTextured = false;
+		this.version = -1;
+	}
+
+	/**
+	 * Returns the id of a Messier object (e.g. M31) inside the icon atlas
+	 */
+	public static int getMessierId(String name) {
+		return Integer.parseInt(name.substring(1)) - 1 + SkyRenderer.MESSIER_ID_OFFSET;
+	}
+
+	/**
+	 * Sets the rectangle of the map seen in the window. It should include the
+	 * margin taken by the largest stars.
+	 */
+	public void setView(float minX, float minY, float maxX, float maxY) {
+		this.viewMinX = minX;
+		this.viewMinY = minY;
+		this.viewMaxX = maxX;
+		this.viewMaxY = maxY;
+	}
+
+	/**
+	 * Chooses whether the fixed objects are projected on the GPU. Has no
+	 * effect if the shaders are not supported. The renderer follows the
+	 * snapshots, so the thread computing the sky must be told as well, with
+	 * the value of {@link #isShaderProjection()}.
+	 */
+	public void setShaderProjection(boolean shaderProjection) {
+		this.shaderProjection = shaderProjection;
+	}
+
+	/**
+	 * Returns true if the fixed objects are to be projected on the GPU
+	 */
+	public boolean isShaderProjection() {
+		return this.shaderProjection && this.projection != null;
+	}
+
+	/**
+	 * Creates the shaders. Must be called from the GL thread.
+	 */
+	public void init(GL2 gl) {
+		try {
+			this.starProgram = new GLSLProgram(gl,
+					SkyRenderer.STAR_VERTEX_SHADER,
+					SkyRenderer.STAR_FRAGMENT_SHADER);
+			this.sizeAttribute = this.starProgram.getAttribLocation(gl, "size");
+		} catch (GLException e) {
+			// Stars are drawn with the same size
+			e.printStackTrace();
+			this.starProgram = null;
+		}
+
+		if (this.staticStars != null) {
+			try {
+				this.projection = new ProjectionShader(gl, this.staticStars,
+						this.staticConLines, this.staticConBoundaries,
+						this.staticMilkyWay);
+			} catch (GLException e) {
+				// The objects are projected on the CPU
+				e.printStackTrace();
+				this.projection = null;
+			}
+		}
+		this.version = -1;
+	}
+
+	/**
+	 * Uploads the geometry of a snapshot unless it is already on the GPU
+	 */
+	public void update(GL2 gl, SkySnapshot sky) {
+		// Snapshots built for the shaders hold neither the stars nor the lines
+		final boolean gpu = this.projection != null && sky.isShaderProjection();
+		if (gpu != this.gpu) {
+			// The CPU buffers are not kept up to date in the meantime
+			this.gpu = gpu;
+			this.version = -1;
+		}
+		if (this.gpu)
+			this.projection.setRotation(sky.getLat(), sky.getLST());
+		if (this.atlas != null && !this.iconsTextured && this.atlas.uploadIfLoaded(gl)) {
+			// The placeholders can be replaced by the icons
+			this.iconsTextured = true;
+			this.version = -1;
+		}
+
+		if (sky.getVersion() == this.version)
+			return;
+
+		SkyRenderer.upload(gl, this.ecliptic, sky.getEcliptic());
+		this.uploadIcons(gl, sky);
+		this.version = sky.getVersion();
+		if (this.gpu)
+			return;
+
+		final SkySnapshot.Points points = sky.getStars();
+		final float[] vertices = this.stars.begin(points.size());
+		int n = 0;
+		for (int i = points.nextVisible(0); i != -1; i = points.nextVisible(i + 1)) {
+			vertices[n++] = points.getX(i);
+			vertices[n++] = points.getY(i);
+			vertices[n++] = SkyRenderer.getStarSize(points.getMag(i));
+		}
+		this.stars.upload(gl, n / SkyRenderer.STAR_COMPONENTS);
+
+		SkyRenderer.upload(gl, this.conLines, sky.getConLines());
+		SkyRenderer.upload(gl, this.conBoundaries, sky.getConBoundaries());
+		SkyRenderer.upload(gl, this.milkyWay, sky.getMilkyWay());
+	}
+
+	private static void upload(GL gl, VertexBuffer vertices, SkySnapshot.Lines lines) {
+		lines.get(vertices.begin(lines.size() * 2));
+		vertices.upload(gl);
+	}
+
+	private static void upload(GL gl, GridBuffer vertices, SkySnapshot.Lines lines) {
+		lines.get(vertices.begin(lines.size()));
+		vertices.upload(gl, lines.size());
+	}
+
+	private void uploadIcons(GL gl, SkySnapshot sky) {
+		if (this.atlas == null)
+			return;
+
+		final SkySnapshot.Points messier = sky.getMessier();
+		final FloatBuffer buffer = this.icons.begin((messier.size() + sky.getBodyCount()) * 4);
+		SkySnapshot.Body body;
+		int id;
+
+		this.messierIcons = 0;
+		for (int i = messier.nextVisible(0); i != -1; i = messier.nextVisible(i + 1)) {
+			id = SkyRenderer.getMessierId(messier.getName(i));
+			if (!this.iconsTextured || this.atlas.contains(id)) {
+				this.putQuad(buffer, id, messier.getX(i), messier.getY(i), SkyRenderer.MESSIER_SIZE);
+				this.messierIcons++;
+			}
+		}
+
+		this.bodyIcons = 0;
+		for (int i = 0; i < sky.getBodyCount(); i++) {
+			body = sky.getBody(i);
+			if (body.isVisiblePP() && (!this.iconsTextured || this.atlas.contains(i))) {
+				this.putQuad(buffer, i, (float) body.getXpp(), (float) body.getYpp(), SkyRenderer.BODY_SIZE);
+				this.bodyIcons++;
+			}
+		}
+		this.icons.upload(gl);
+	}
+
+	private void putQuad(FloatBuffer buffer, int id, float x, float y, float size) {
+		float u0 = 0, v0 = 0, u1 = 0, v1 = 0;
+		if (this.iconsTextured) {
+			u0 = this.atlas.getU0(id);
+			v0 = this.atlas.getV0(id);
+			u1 = this.atlas.getU1(id);
+			v1 = this.atlas.getV1(id);
+		}
+
+		buffer.put(x - size).put(y - size).put(u0).put(v0);
+		buffer.put(x + size).put(y - size).put(u1).put(v0);
+		buffer.put(x + size).put(y + size).put(u1).put(v1);
+		buffer.put(x - size).put(y + size).put(u0).put(v1);
+	}
+
+	/**
+	 * Returns the size in pixels of a star of the given magnitude
+	 */
+	public static float getStarSize(float mag) {
+		return Math.max(2 * (7 - mag), 1);
+	}
+
+	/**
+	 * Draws the stars with the current color
+	 */
+	public void drawStars(GL2 gl) {
+		if (this.gpu) {
+			this.projection.drawStars(gl);
+			return;
+		}
+		if (this.stars.getCount() == 0)
+			return;
+
+		final int stride = this.stars.getStride();
+		final boolean sized = this.starProgram != null && this.sizeAttribute != -1;
+
+		this.stars.bind(gl);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glVertexPointer(2, GL.GL_FLOAT, stride, 0);
+
+		if (sized) {
+			this.starProgram.use(gl);
+			gl.glEnable(GL2.GL_VERTEX_PROGRAM_POINT_SIZE);
+			gl.glEnable(GL2.GL_POINT_SPRITE);
+			gl.glEnableVertexAttribArray(this.sizeAttribute);
+			gl.glVertexAttribPointer(this.sizeAttribute, 1, GL.GL_FLOAT, false, stride,
+					2 * Buffers.SIZEOF_FLOAT);
+		} else {
+			gl.glEnable(GL2.GL_POINT_SMOOTH);
+			gl.glPointSize(SkyRenderer.DEFAULT_STAR_SIZE);
+		}
+
+		this.stars.draw(gl, GL.GL_POINTS, this.viewMinX, this.viewMinY, this.viewMaxX, this.viewMaxY);
+
+		if (sized) {
+			gl.glDisableVertexAttribArray(this.sizeAttribute);
+			gl.glDisable(GL2.GL_POINT_SPRITE);
+			gl.glDisable(GL2.GL_VERTEX_PROGRAM_POINT_SIZE);
+			this.starProgram.release(gl);
+		} else {
+			gl.glDisable(GL2.GL_POINT_SMOOTH);
+		}
+
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		this.stars.unbind(gl);
+	}
+
+	public void drawConLines(GL2 gl) {
+		if (this.gpu)
+			this.projection.drawConLines(gl);
+		else
+			this.drawLines(gl, this.conLines);
+	}
+
+	public void drawConBoundaries(GL2 gl) {
+		if (this.gpu)
+			this.projection.drawConBoundaries(gl);
+		else
+			this.drawLines(gl, this.conBoundaries);
+	}
+
+	public void drawMilkyWay(GL2 gl) {
+		if (this.gpu)
+			this.projection.drawMilkyWay(gl);
+		else
+			this.drawLines(gl, this.milkyWay);
+	}
+
+	public void drawEcliptic(GL2 gl) {
+		SkyRenderer.drawLines(gl, this.ecliptic);
+	}
+
+	/**
+	 * Draws the icons of the visible Messier objects, modulated by the
+	 * current color
+	 */
+	public void drawMessierIcons(GL2 gl) {
+		this.drawIcons(gl, 0, this.messierIcons);
+	}
+
+	/**
+	 * Draws the icons of the visible Solar System objects, modulated by the
+	 * current color
+	 */
+	public void drawBodyIcons(GL2 gl) {
+		this.drawIcons(gl, this.messierIcons, this.bodyIcons);
+	}
+
+	private void drawIcons(GL2 gl, int first, int count) {
+		if (count == 0)
+			return;
+
+		final int stride = this.icons.getStride();
+
+		// Icons are opaque
+		gl.glDisable(GL.GL_BLEND);
+		if (this.iconsTextured) {
+			this.atlas.bind();
+			this.atlas.enable();
+		}
+
+		this.icons.bind(gl);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glVertexPointer(2, GL.GL_FLOAT, stride, 0);
+		gl.glTexCoordPointer(2, GL.GL_FLOAT, stride, 2 * Buffers.SIZEOF_FLOAT);
+		gl.glDrawArrays(GL2.GL_QUADS, first * 4, count * 4);
+		gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		this.icons.unbind(gl);
+
+		if (this.iconsTextured)
+			this.atlas.disable();
+		gl.glEnable(GL.GL_BLEND);
+	}
+
+	/**
+	 * Draws the part of a line layer seen in the window with the current
+	 * color and stipple
+	 */
+	private void drawLines(GL2 gl, GridBuffer lines) {
+		if (lines.getCount() == 0)
+			return;
+
+		lines.bind(gl);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glVertexPointer(2, GL.GL_FLOAT, lines.getStride(), 0);
+		lines.draw(gl, GL.GL_LINES, this.viewMinX, this.viewMinY, this.viewMaxX, this.viewMaxY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		lines.unbind(gl);
+	}
+
+	/**
+	 * Draws a line layer with the current color and stipple
+	 */
+	private static void drawLines(GL2 gl, VertexBuffer lines) {
+		if (lines.getCount() == 0)
+			return;
+
+		lines.bind(gl);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glVertexPointer(2, GL.GL_FLOAT, lines.getStride(), 0);
+		gl.glDrawArrays(GL.GL_LINES, 0, lines.getCount());
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		lines.unbind(gl);
+	}
+
+	/**
+	 * Releases the GPU resources
+	 */
+	public void dispose(GL2 gl) {
+		this.stars.delete(gl);
+		this.conLines.delete(gl);
+		this.conBoundaries.delete(gl);
+		this.milkyWay.delete(gl);
+		this.ecliptic.delete(gl);
+		this.icons.delete(gl);
+		if (this.starProgram != null) {
+			this.starProgram.delete(gl);
+			this.starProgram = null;
+		}
+		if (this.projection != null) {
+			this.projection.dispose(gl);
+			this.projection = null;
+		}
+		this.gpu = false;
+		this.version = -1;
+	}
+}
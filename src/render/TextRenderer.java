@@ -0,0 +1,301 @@
+package render;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * Draws text from a font rasterized once in a texture. The labels added
+ * during a frame are turned into textured quads, one per character, and all
+ * of them are drawn at once, instead of one bitmap call per character.
+ *
+ * Like bitmap text the characters keep their size in pixels whatever the
+ * zoom, and each label starts on a whole pixel so that it stays sharp.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class TextRenderer {
+
+	// The characters rasterized besides the printable ASCII ones: the
+	// Romanian diacritics, with both forms of s and t comma, and the degree
+	private static final String EXTRA_CHARACTERS = "\u0103\u00e2\u00ee\u0219\u021b\u0102\u00c2\u00ce\u0218\u021a\u015f\u0163\u015e\u0162\u00b0";
+	// Drawn for the characters which have not been rasterized
+	private static final char MISSING = '?';
+	// Empty pixels around each character
+	private static final int PADDING = 1;
+	private static final int ATLAS_WIDTH = 256;
+	// Floats per vertex: position, texture coordinates, color
+	private static final int COMPONENTS = 7;
+
+	private final Font font;
+
+	// Texture coordinates and width in pixels of each character
+	private final char[] characters;
+	private float[] u0, v0, u1, v1;
+	private int[] advance;
+	private int cellHeight, descent;
+	private final int[] texture = new int[1];
+
+	// The labels of the current frame
+	private float[] vertices = new float[4096];
+	private int floats = 0;
+	private double originX, originY, pixelWidth, pixelHeight;
+	private final VertexBuffer quads = new VertexBuffer(TextRenderer.COMPONENTS);
+
+	/**
+	 * Constructor
+	 *
+	 * @param font
+	 *            the font the text is written with
+	 */
+	public TextRenderer(Font font) {
+		this.font = font;
+
+		final StringBuilder characters = new StringBuilder();
+		for (char c = 32; c < 127; c++)
+			characters.append(c);
+		characters.append(TextRenderer.EXTRA_CHARACTERS);
+		this.characters = characters.toString().toCharArray();
+		Arrays.sort(this.characters);
+	}
+
+	/**
+	 * Rasterizes the font and creates its texture. Must be called from the
+	 * GL thread.
+	 */
+	public void init(GL2 gl) {
+		// Measures the characters on a scratch image
+		final BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = scratch.createGraphics();
+		g.setFont(this.font);
+		final FontMetrics metrics = g.getFontMetrics();
+		g.dispose();
+
+		final int count = this.characters.length;
+		final int pad = TextRenderer.PADDING;
+		this.advance = new int[count];
+		this.u0 = new float[count];
+		this.v0 = new float[count];
+		this.u1 = new float[count];
+		this.v1 = new float[count];
+		this.cellHeight = metrics.getAscent() + metrics.getDescent() + 2 * pad;
+		this.descent = metrics.getDescent();
+
+		// Places the characters on rows
+		final int[] x = new int[count], y = new int[count];
+		int penX = 0, penY = 0;
+		for (int i = 0; i < count; i++) {
+			this.advance[i] = metrics.charWidth(this.characters[i]);
+			if (penX + this.advance[i] + 2 * pad > TextRenderer.ATLAS_WIDTH) {
+				penX = 0;
+				penY += this.cellHeight;
+			}
+			x[i] = penX;
+			y[i] = penY;
+			penX += this.advance[i] + 2 * pad;
+		}
+		int height = 1;
+		while (height < penY + this.cellHeight)
+			height <<= 1;
+		final int width = TextRenderer.ATLAS_WIDTH;
+
+		final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		g = image.createGraphics();
+		g.setFont(this.font);
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+		for (int i = 0; i < count; i++) {
+			g.drawString(String.valueOf(this.characters[i]), x[i] + pad, y[i] + pad + metrics.getAscent());
+			// The image is turned upside down below, as OpenGL expects it
+			this.u0[i] = (float) x[i] / width;
+			this.u1[i] = (float) (x[i] + this.advance[i] + 2 * pad) / width;
+			this.v0[i] = (float) (height - y[i] - this.cellHeight) / height;
+			this.v1[i] = (float) (height - y[i]) / height;
+		}
+		g.dispose();
+
+		// Only the coverage is kept, the color comes from the vertices
+		final int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+		final ByteBuffer alpha = Buffers.newDirectByteBuffer(width * height);
+		for (int row = height - 1; row >= 0; row--)
+			for (int column = 0; column < width; column++)
+				alpha.put((byte) (argb[row * width + column] >>> 24));
+		alpha.rewind();
+
+		gl.glGenTextures(1, this.texture, 0);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+		gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+		gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_ALPHA, width, height, 0,
+				GL.GL_ALPHA, GL.GL_UNSIGNED_BYTE, alpha);
+		gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 4);
+	}
+
+	/**
+	 * Starts the labels of a frame
+	 *
+	 * @param originX
+	 *            the X coordinate of the left edge of the window
+	 * @param originY
+	 *            the Y coordinate of the bottom edge of the window
+	 * @param pixelWidth
+	 *            the width of a pixel in the coordinates of the labels
+	 * @param pixelHeight
+	 *            the height of a pixel in the coordinates of the labels
+	 */
+	public void begin(double originX, double originY, double pixelWidth, double pixelHeight) {
+		this.floats = 0;
+		this.originX = originX;
+		this.originY = originY;
+		this.pixelWidth = pixelWidth;
+		this.pixelHeight = pixelHeight;
+	}
+
+	/**
+	 * Adds a label, drawn by the next call to {@link #draw(GL2)}
+	 *
+	 * @param text
+	 *            the text of the label
+	 * @param x
+	 *            the X coordinate of the start of the base line
+	 * @param y
+	 *            the Y coordinate of the base line
+	 */
+	public void add(String text, double x, double y, float red, float green, float blue) {
+		final int length = text.length();
+		if (this.floats + length * 4 * TextRenderer.COMPONENTS > this.vertices.length)
+			this.vertices = Arrays.copyOf(this.vertices,
+					Math.max(this.vertices.length * 2, this.floats + length * 4 * TextRenderer.COMPONENTS));
+
+		// The label starts on a whole pixel
+		final double pixelX = Math.floor((x - this.originX) / this.pixelWidth + 0.5);
+		final double pixelY = Math.floor((y - this.originY) / this.pixelHeight + 0.5);
+		final double bottom = this.originY + (pixelY - this.descent - TextRenderer.PADDING) * this.pixelHeight;
+		final double top = bottom + this.cellHeight * this.pixelHeight;
+		double pen = pixelX - TextRenderer.PADDING;
+		double left, right;
+		int i;
+
+		for (int c = 0; c < length; c++) {
+			i = this.indexOf(text.charAt(c));
+			left = this.originX + pen * this.pixelWidth;
+			right = left + (this.advance[i] + 2 * TextRenderer.PADDING) * this.pixelWidth;
+			this.put(left, bottom, this.u0[i], this.v0[i], red, green, blue);
+			this.put(right, bottom, this.u1[i], this.v0[i], red, green, blue);
+			this.put(right, top, this.u1[i], this.v1[i], red, green, blue);
+			this.put(left, top, this.u0[i], this.v1[i], red, green, blue);
+			pen += this.advance[i];
+		}
+	}
+
+	private int indexOf(char c) {
+		final int index = Arrays.binarySearch(this.characters, c);
+		return index >= 0 ? index : Arrays.binarySearch(this.characters, TextRenderer.MISSING);
+	}
+
+	private void put(double x, double y, float u, float v, float red, float green, float blue) {
+		this.vertices[this.floats++] = (float) x;
+		this.vertices[this.floats++] = (float) y;
+		this.vertices[this.floats++] = u;
+		this.vertices[this.floats++] = v;
+		this.vertices[this.floats++] = red;
+		this.vertices[this.floats++] = green;
+		this.vertices[this.floats++] = blue;
+	}
+
+	/**
+	 * Returns the width of a text in pixels
+	 */
+	public int getWidth(String text) {
+		int width = 0;
+		for (int c = 0; c < text.length(); c++)
+			width += this.advance[this.indexOf(text.charAt(c))];
+		return width;
+	}
+
+	/**
+	 * Returns the height of a line in pixels
+	 */
+	public int getHeight() {
+		return this.cellHeight - 2 * TextRenderer.PADDING;
+	}
+
+	/**
+	 * Returns how far the characters go under the base line, in pixels
+	 */
+	public int getDescent() {
+		return this.descent;
+	}
+
+	public double getOriginX() {
+		return this.originX;
+	}
+
+	public double getOriginY() {
+		return this.originY;
+	}
+
+	public double getPixelWidth() {
+		return this.pixelWidth;
+	}
+
+	public double getPixelHeight() {
+		return this.pixelHeight;
+	}
+
+	/**
+	 * Draws all the labels added since {@link #begin}, with blending enabled
+	 */
+	public void draw(GL2 gl) {
+		if (this.floats == 0)
+			return;
+
+		final FloatBuffer buffer = this.quads.begin(this.floats / TextRenderer.COMPONENTS);
+		buffer.put(this.vertices, 0, this.floats);
+		this.quads.upload(gl);
+		this.floats = 0;
+
+		final int stride = this.quads.getStride();
+		gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+		gl.glEnable(GL.GL_TEXTURE_2D);
+
+		this.quads.bind(gl);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+		gl.glVertexPointer(2, GL.GL_FLOAT, stride, 0);
+		gl.glTexCoordPointer(2, GL.GL_FLOAT, stride, 2 * Buffers.SIZEOF_FLOAT);
+		gl.glColorPointer(3, GL.GL_FLOAT, stride, 4 * Buffers.SIZEOF_FLOAT);
+		gl.glDrawArrays(GL2.GL_QUADS, 0, this.quads.getCount());
+		gl.glDisableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		this.quads.unbind(gl);
+
+		gl.glDisable(GL.GL_TEXTURE_2D);
+	}
+
+	/**
+	 * Releases the GPU resources
+	 */
+	public void dispose(GL2 gl) {
+		this.quads.delete(gl);
+		if (this.texture[0] != 0) {
+			gl.glDeleteTextures(1, this.texture, 0);
+			this.texture[0] = 0;
+		}
+	}
+}
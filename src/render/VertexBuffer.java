@@ -0,0 +1,112 @@
+package render;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+/**
+ * A vertex buffer object holding interleaved float vertices. The vertices are
+ * written in a direct buffer kept on the Java side and uploaded to the GPU in
+ * one call. The GPU storage is only reallocated when it becomes too small.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+final public class VertexBuffer {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// Number of floats per vertex
+	private final int components;
+
+	private FloatBuffer data;
+	private int count = 0;
+
+	private final int[] id = new int[1];
+	// Size in bytes of the storage allocated on the GPU
+	private int allocated = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param components
+	 *            the number of floats per vertex
+	 */
+	public VertexBuffer(int components) {
+		this.components = components;
+		this.data = Buffers.newDirectFloatBuffer(components
+				* VertexBuffer.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Discards the vertices and returns the buffer to write the new ones in
+	 *
+	 * @param vertices
+	 *            the maximum number of vertices which will be written
+	 * @return the buffer to be filled, positioned at its start
+	 */
+	public FloatBuffer begin(int vertices) {
+		final int floats = vertices * this.components;
+		if (this.data.capacity() < floats)
+			this.data = Buffers.newDirectFloatBuffer(Math.max(floats,
+					this.data.capacity() * 2));
+		this.data.clear();
+		return this.data;
+	}
+
+	/**
+	 * Sends the vertices written since {@link #begin(int)} to the GPU
+	 */
+	public void upload(GL gl) {
+		if (this.id[0] == 0)
+			gl.glGenBuffers(1, this.id, 0);
+
+		this.count = this.data.position() / this.components;
+		this.data.flip();
+
+		final int bytes = this.data.limit() * Buffers.SIZEOF_FLOAT;
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.id[0]);
+		if (bytes > this.allocated) {
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, bytes, this.data, GL.GL_DYNAMIC_DRAW);
+			this.allocated = bytes;
+		} else if (bytes > 0) {
+			gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 0, bytes, this.data);
+		}
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+	}
+
+	public void bind(GL gl) {
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.id[0]);
+	}
+
+	public void unbind(GL gl) {
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Returns the number of vertices uploaded
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the size in bytes of a vertex
+	 */
+	public int getStride() {
+		return this.components * Buffers.SIZEOF_FLOAT;
+	}
+
+	/**
+	 * Releases the GPU storage
+	 */
+	public void delete(GL gl) {
+		if (this.id[0] != 0) {
+			gl.glDeleteBuffers(1, this.id, 0);
+			this.id[0] = 0;
+			this.allocated = 0;
+		}
+	}
+}
@@ -103,24 +103,19 @@ public class BitmapLoader {
         int npad = (nSizeImage / nHeight) - nWidth * 3;
         if (npad == 4 || npad < 0)
             npad = 0;
-        int nindex = 0;
-        BufferedImage bufferedImage = new BufferedImage(nWidth, nHeight, BufferedImage.TYPE_4BYTE_ABGR);
+        int rowLength = nWidth * 3;
+        // The file stores blue, green, red like the image, so whole rows are copied
+        BufferedImage bufferedImage = new BufferedImage(nWidth, nHeight, BufferedImage.TYPE_3BYTE_BGR);
         DataBufferByte dataBufferByte = ((DataBufferByte) bufferedImage.getRaster().getDataBuffer());
-        byte[][] bankData = dataBufferByte.getBankData();
-        byte brgb[] = new byte[(nWidth + npad) * 3 * nHeight];
+        byte[] data = dataBufferByte.getData();
+        byte brgb[] = new byte[(rowLength + npad) * nHeight];
 
         readBuffer(input, brgb);
 
+        int nindex = 0;
         for (int j = nHeight - 1; j >= 0; j--) {
-            for (int i = 0; i < nWidth; i++) {
-                int base = (j * nWidth + i) * 4;
-                bankData[0][base] = (byte) 255;
-                bankData[0][base + 1] = brgb[nindex];
-                bankData[0][base + 2] = brgb[nindex + 1];
-                bankData[0][base + 3] = brgb[nindex + 2];
-                nindex += 3;
-            }
-            nindex += npad;
+            System.arraycopy(brgb, nindex, data, j * rowLength, rowLength);
+            nindex += rowLength + npad;
         }
 
         return bufferedImage;
@@ -0,0 +1,87 @@
+package texture;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.glu.GLU;
+
+/**
+ * A texture handed out by a {@link TextureManager}. It becomes usable once
+ * its image has been decoded; it is then uploaded by the first call to
+ * {@link #bind(GL, GLU)}.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class ManagedTexture {
+
+	private final String path;
+	private Future<TextureReader.Texture> image;
+	private TextureHandler handler = null;
+	private boolean failed = false;
+
+	ManagedTexture(String path, Future<TextureReader.Texture> image) {
+		this.path = path;
+		this.image = image;
+	}
+
+	/**
+	 * Binds the texture, uploading it first if needed. Must be called from
+	 * the GL thread.
+	 *
+	 * @return false if the image is not decoded yet (or could not be), in
+	 *         which case nothing is bound and a placeholder should be drawn
+	 */
+	public boolean bind(GL gl, GLU glu) {
+		if (this.handler == null) {
+			if (this.failed || !this.image.isDone())
+				return false;
+
+			try {
+				this.handler = new TextureHandler(gl, glu, this.image.get(), false);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				System.err.println("Cannot load " + this.path);
+				e.getCause().printStackTrace();
+				this.failed = true;
+				return false;
+			}
+			// The pixels are kept by the handler
+			this.image = null;
+		}
+
+		this.handler.bind();
+		return true;
+	}
+
+	/**
+	 * Returns true if the texture has been uploaded
+	 */
+	public boolean isReady() {
+		return this.handler != null;
+	}
+
+	public void enable() {
+		this.handler.enable();
+	}
+
+	public void disable() {
+		this.handler.disable();
+	}
+
+	/**
+	 * Releases the texture if it has been uploaded
+	 */
+	public void delete() {
+		if (this.handler != null)
+			this.handler.delete();
+	}
+
+	public String getPath() {
+		return this.path;
+	}
+}
@@ -0,0 +1,107 @@
+package texture;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A buffered stream whose buffer is borrowed from a pool shared by all the
+ * streams and given back when the stream is closed. Reading many images one
+ * after the other then reuses the same few buffers.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+class PooledInputStream extends FilterInputStream {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	// More buffers than this are left to the garbage collector
+	private static final int MAX_POOLED = 2 * Runtime.getRuntime().availableProcessors();
+
+	private static final ConcurrentLinkedQueue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+
+	private byte[] buffer;
+	private int position = 0, count = 0;
+
+	PooledInputStream(InputStream in) {
+		super(in);
+		final byte[] pooled = PooledInputStream.pool.poll();
+		this.buffer = pooled != null ? pooled : new byte[PooledInputStream.BUFFER_SIZE];
+	}
+
+	private boolean fill() throws IOException {
+		if (this.buffer == null)
+			throw new IOException("Stream closed");
+		this.position = 0;
+		this.count = Math.max(this.in.read(this.buffer, 0, this.buffer.length), 0);
+		return this.count > 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.position >= this.count && !this.fill())
+			return -1;
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (this.position >= this.count) {
+			// Large reads skip the buffer
+			if (len >= this.buffer.length)
+				return this.in.read(b, off, len);
+			if (!this.fill())
+				return -1;
+		}
+		final int n = Math.min(len, this.count - this.position);
+		System.arraycopy(this.buffer, this.position, b, off, n);
+		this.position += n;
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0)
+			return 0;
+		final int buffered = this.count - this.position;
+		if (buffered > 0) {
+			final int skipped = (int) Math.min(n, buffered);
+			this.position += skipped;
+			return skipped;
+		}
+		return this.in.skip(n);
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (this.count - this.position) + this.in.available();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.buffer != null) {
+			if (PooledInputStream.pool.size() < PooledInputStream.MAX_POOLED)
+				PooledInputStream.pool.offer(this.buffer);
+			this.buffer = null;
+		}
+		super.close();
+	}
+}
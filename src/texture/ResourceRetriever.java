@@ -1,35 +1,128 @@
 package texture;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Utility class that allows transparent reading of files from
- * the current working directory or from the classpath.
+ * the current working directory, from the classpath or from
+ * archives mounted under a path, e.g. images.zip under images/.
+ * The entries of an archive are only decompressed when they are read.
  * @author Pepijn Van Eeckhoudt
  */
 public class ResourceRetriever {
+
+    /**
+     * An archive whose entries are found under a path prefix
+     */
+    private static class Mount {
+        final String prefix;
+        final FileSystem fileSystem;
+
+        Mount(String prefix, FileSystem fileSystem) {
+            this.prefix = prefix;
+            this.fileSystem = fileSystem;
+        }
+
+        Path resolve(String filename) {
+            if (!filename.startsWith(this.prefix))
+                return null;
+            final Path path = this.fileSystem.getPath(filename.substring(this.prefix.length()));
+            return Files.isRegularFile(path) ? path : null;
+        }
+    }
+
+    private static final CopyOnWriteArrayList<Mount> mounts = new CopyOnWriteArrayList<Mount>();
+
+    /**
+     * Makes the entries of a zip or jar archive readable as if they were
+     * files under a path. The archive is searched before the disk.
+     *
+     * @param archive the path of the archive
+     * @param prefix the path the entries are found under, e.g. "images/"
+     * @throws IOException if the archive cannot be opened
+     */
+    public static void mount(String archive, String prefix) throws IOException {
+        final FileSystem fileSystem = FileSystems.newFileSystem(Paths.get(archive), (ClassLoader) null);
+        mounts.add(new Mount(prefix.replace('\\', '/'), fileSystem));
+    }
+
+    /**
+     * Returns the entry of a mounted archive for the given path or null
+     */
+    private static Path findMounted(String convertedFileName) {
+        Path path;
+        for (Mount mount : mounts) {
+            path = mount.resolve(convertedFileName);
+            if (path != null)
+                return path;
+        }
+        return null;
+    }
+
     public static URL getResource(final String filename) throws IOException {
         // Try to load resource from jar
         URL url = ResourceRetriever.class.getClassLoader().getResource(filename);
-        // If not found in jar, then load from disk
-        if (url == null) {
-            return new URL("file", "localhost", filename);
-        } else {
+        if (url != null)
             return url;
-        }
+        // Then from a mounted archive
+        final Path mounted = findMounted(filename.replace('\\', '/'));
+        if (mounted != null)
+            return mounted.toUri().toURL();
+        // If not found in jar, then load from disk
+        return new URL("file", "localhost", filename);
     }
 
     public static InputStream getResourceAsStream(final String filename) throws IOException {
         // Try to load resource from jar
         String convertedFileName = filename.replace('\\', '/');
         InputStream stream = ResourceRetriever.class.getClassLoader().getResourceAsStream(convertedFileName);
-        // If not found in jar, then load from disk
         if (stream == null) {
-            return new FileInputStream(convertedFileName);
-        } else {
-            return stream;
+            // Then from a mounted archive, else load from disk
+            final Path mounted = findMounted(convertedFileName);
+            if (mounted != null)
+                stream = Files.newInputStream(mounted);
+            else
+                stream = new FileInputStream(convertedFileName);
         }
+        return new PooledInputStream(stream);
+    }
+
+    /**
+     * Returns the time the file was last modified in milliseconds, or -1 if
+     * the file is not found or is read from the classpath
+     */
+    public static long getLastModified(final String filename) throws IOException {
+        String convertedFileName = filename.replace('\\', '/');
+        if (ResourceRetriever.class.getClassLoader().getResource(convertedFileName) != null)
+            return -1;
+        final Path mounted = findMounted(convertedFileName);
+        if (mounted != null)
+            return Files.getLastModifiedTime(mounted).toMillis();
+        final File file = new File(convertedFileName);
+        return file.isFile() ? file.lastModified() : -1;
+    }
+
+    /**
+     * Returns the uncompressed size of the file in bytes, or -1 if the file
+     * is not found or is read from the classpath
+     */
+    public static long getSize(final String filename) throws IOException {
+        String convertedFileName = filename.replace('\\', '/');
+        if (ResourceRetriever.class.getClassLoader().getResource(convertedFileName) != null)
+            return -1;
+        final Path mounted = findMounted(convertedFileName);
+        if (mounted != null)
+            return Files.size(mounted);
+        final File file = new File(convertedFileName);
+        return file.isFile() ? file.length() : -1;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,312 @@
+package texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+/**
+ * Packs many small images in a single texture. The images are placed on
+ * shelves, the tallest first, and each one is found through the texture
+ * coordinates of its rectangle, looked up by the id it was added with. All
+ * the objects using the atlas can then be drawn without changing the bound
+ * texture.
+ *
+ * The images may still be decoding when they are added, e.g. by a
+ * {@link TextureManager}: {@link #uploadIfLoaded(GL)} creates the texture
+ * once all of them are available.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class TextureAtlas {
+
+	public static final int DEFAULT_WIDTH = 2048;
+	// Empty pixels around each image, so that linear filtering does not pick
+	// up the neighbours
+	private static final int PADDING = 1;
+
+	private final int maxWidth;
+
+	// Images waiting to be packed
+	private final ArrayList<Integer> ids = new ArrayList<Integer>();
+	private final ArrayList<Future<TextureReader.Texture>> images = new ArrayList<Future<TextureReader.Texture>>();
+
+	// u0, v0, u1, v1 of every image, indexed by id
+	private float[] uvs = new float[0];
+	private final BitSet present = new BitSet();
+
+	private int width = 0, height = 0;
+	private final int[] texture = new int[1];
+	private GL gl = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxWidth
+	 *            the maximum width of the atlas in pixels
+	 */
+	public TextureAtlas(int maxWidth) {
+		this.maxWidth = maxWidth;
+	}
+
+	/**
+	 * Adds an image to the atlas
+	 *
+	 * @param id
+	 *            a small positive number identifying the image
+	 * @param path
+	 *            the path of the image
+	 * @throws IOException
+	 */
+	public void add(int id, String path) throws IOException {
+		this.add(id, TextureReader.readTexture(path));
+	}
+
+	/**
+	 * Adds a decoded image to the atlas
+	 *
+	 * @param id
+	 *            a small positive number identifying the image
+	 * @param image
+	 *            the RGB pixels of the image
+	 */
+	public void add(int id, final TextureReader.Texture image) {
+		final FutureTask<TextureReader.Texture> decoded = new FutureTask<TextureReader.Texture>(
+				new Callable<TextureReader.Texture>() {
+					public TextureReader.Texture call() {
+						return image;
+					}
+				});
+		decoded.run();
+		this.add(id, decoded);
+	}
+
+	/**
+	 * Adds an image which may still be decoding
+	 *
+	 * @param id
+	 *            a small positive number identifying the image
+	 * @param image
+	 *            the RGB pixels of the image, once decoded
+	 */
+	public void add(int id, Future<TextureReader.Texture> image) {
+		this.ids.add(id);
+		this.images.add(image);
+	}
+
+	/**
+	 * Returns true once all the images added have been decoded
+	 */
+	public boolean isLoaded() {
+		for (Future<TextureReader.Texture> image : this.images)
+			if (!image.isDone())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns true if the texture has been created
+	 */
+	public boolean isUploaded() {
+		return this.texture[0] != 0;
+	}
+
+	/**
+	 * Creates the texture if all the images have been decoded. Must be
+	 * called from the GL thread.
+	 *
+	 * @return true if the texture is ready to be used
+	 */
+	public boolean uploadIfLoaded(GL gl) {
+		if (this.images.isEmpty())
+			return this.isUploaded();
+		if (!this.isLoaded())
+			return false;
+		this.upload(gl);
+		return true;
+	}
+
+	/**
+	 * Packs the images added so far and creates the texture, waiting for
+	 * the images still decoding. Images which cannot be decoded are left out.
+	 * Must be called from the GL thread.
+	 */
+	public void upload(GL gl) {
+		this.gl = gl;
+
+		final ArrayList<Integer> ids = new ArrayList<Integer>();
+		final ArrayList<TextureReader.Texture> images = new ArrayList<TextureReader.Texture>();
+		TextureReader.Texture decoded;
+		for (int i = 0; i < this.images.size(); i++) {
+			try {
+				decoded = this.images.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+				continue;
+			}
+			if (decoded.getWidth() + 2 * TextureAtlas.PADDING > this.maxWidth) {
+				System.err.println("Image " + this.ids.get(i) + " is wider than the atlas");
+				continue;
+			}
+			ids.add(this.ids.get(i));
+			images.add(decoded);
+		}
+
+		final int count = images.size();
+		final int[] x = new int[count], y = new int[count];
+		this.pack(images, x, y);
+
+		final ByteBuffer pixels = Buffers.newDirectByteBuffer(this.width * this.height * 3);
+		TextureReader.Texture image;
+		ByteBuffer row;
+		int id;
+
+		for (int i = 0; i < count; i++) {
+			image = images.get(i);
+			// The rows are stored bottom up, as OpenGL expects them
+			row = image.getPixels().duplicate();
+			for (int r = 0; r < image.getHeight(); r++) {
+				row.limit((r + 1) * image.getWidth() * 3);
+				row.position(r * image.getWidth() * 3);
+				pixels.position(((y[i] + r) * this.width + x[i]) * 3);
+				pixels.put(row);
+			}
+
+			id = ids.get(i);
+			if ((id + 1) * 4 > this.uvs.length)
+				this.uvs = Arrays.copyOf(this.uvs, Math.max((id + 1) * 4, this.uvs.length * 2));
+			// Half a texel inside the rectangle, so that only its own pixels
+			// are sampled
+			this.uvs[id * 4] = (x[i] + 0.5f) / this.width;
+			this.uvs[id * 4 + 1] = (y[i] + 0.5f) / this.height;
+			this.uvs[id * 4 + 2] = (x[i] + image.getWidth() - 0.5f) / this.width;
+			this.uvs[id * 4 + 3] = (y[i] + image.getHeight() - 0.5f) / this.height;
+			this.present.set(id);
+		}
+		pixels.rewind();
+
+		if (this.texture[0] == 0)
+			gl.glGenTextures(1, this.texture, 0);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+		gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+		gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGB, this.width, this.height, 0,
+				GL.GL_RGB, GL.GL_UNSIGNED_BYTE, pixels);
+
+		// The pixels are on the GPU now
+		this.ids.clear();
+		this.images.clear();
+	}
+
+	/**
+	 * Places the images on shelves, the tallest first, and sets the size of
+	 * the atlas to the next powers of two
+	 */
+	private void pack(final ArrayList<TextureReader.Texture> images, int[] x, int[] y) {
+		final Integer[] order = new Integer[images.size()];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, Collections.reverseOrder(new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return images.get(a).getHeight() - images.get(b).getHeight();
+			}
+		}));
+
+		int shelfX = 0, shelfY = 0, shelfHeight = 0, usedWidth = 0;
+		TextureReader.Texture image;
+		int w, h;
+
+		for (int i : order) {
+			image = images.get(i);
+			w = image.getWidth() + 2 * TextureAtlas.PADDING;
+			h = image.getHeight() + 2 * TextureAtlas.PADDING;
+			if (shelfX + w > this.maxWidth) {
+				shelfY += shelfHeight;
+				shelfX = 0;
+				shelfHeight = 0;
+			}
+			x[i] = shelfX + TextureAtlas.PADDING;
+			y[i] = shelfY + TextureAtlas.PADDING;
+			shelfX += w;
+			shelfHeight = Math.max(shelfHeight, h);
+			usedWidth = Math.max(usedWidth, shelfX);
+		}
+
+		this.width = TextureAtlas.nextPowerOfTwo(usedWidth);
+		this.height = TextureAtlas.nextPowerOfTwo(shelfY + shelfHeight);
+	}
+
+	private static int nextPowerOfTwo(int value) {
+		int power = 1;
+		while (power < value)
+			power <<= 1;
+		return power;
+	}
+
+	public boolean contains(int id) {
+		return this.present.get(id);
+	}
+
+	public float getU0(int id) {
+		return this.uvs[id * 4];
+	}
+
+	public float getV0(int id) {
+		return this.uvs[id * 4 + 1];
+	}
+
+	public float getU1(int id) {
+		return this.uvs[id * 4 + 2];
+	}
+
+	public float getV1(int id) {
+		return this.uvs[id * 4 + 3];
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public void bind() {
+		this.gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture[0]);
+	}
+
+	public void enable() {
+		this.gl.glEnable(GL.GL_TEXTURE_2D);
+	}
+
+	public void disable() {
+		this.gl.glDisable(GL.GL_TEXTURE_2D);
+	}
+
+	/**
+	 * Releases the texture
+	 */
+	public void delete() {
+		if (this.texture[0] != 0) {
+			this.gl.glDeleteTextures(1, this.texture, 0);
+			this.texture[0] = 0;
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+/**
+ * Keeps the decoded images in a single file, already flipped and in the RGB
+ * layout sent to OpenGL. An image found in the cache is mapped in memory
+ * instead of being decoded again, and its pixels go straight from the mapped
+ * buffer to the GPU. An image is decoded again only if the time stamp or the
+ * size of its file, or of its entry in a mounted archive, changed.
+ *
+ * The records are appended to the end of the file. Records replaced by newer
+ * ones are removed when the cache is opened, if they take too much space.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class TextureCache {
+
+	private static final int MAGIC = 0x53544331;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	// The only layout stored for now
+	private static final int FORMAT_RGB8 = 0;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Where a record is found in the file
+	 */
+	private static class Entry {
+		long position, length;
+		long modified, size;
+		int width, height;
+		long pixels;
+	}
+
+	private final File file;
+	private RandomAccessFile raf;
+	private FileChannel channel;
+	private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+	// Bytes taken by records which have been replaced
+	private long stale = 0;
+
+	/**
+	 * Opens the cache file, creating it if needed
+	 *
+	 * @param path
+	 *            the path of the cache file
+	 * @throws IOException
+	 */
+	public TextureCache(String path) throws IOException {
+		this.file = new File(path);
+		if (this.file.getParentFile() != null)
+			this.file.getParentFile().mkdirs();
+
+		this.open();
+		// Rewrites the file once half of it is taken by replaced records
+		if (this.stale * 2 >= this.channel.size() - TextureCache.HEADER_SIZE && this.stale > 0)
+			this.compact();
+	}
+
+	private void open() throws IOException {
+		this.raf = new RandomAccessFile(this.file, "rw");
+		this.channel = this.raf.getChannel();
+		this.entries.clear();
+		this.stale = 0;
+
+		final ByteBuffer header = ByteBuffer.allocate(TextureCache.HEADER_SIZE);
+		if (this.channel.size() >= TextureCache.HEADER_SIZE) {
+			this.channel.read(header, 0);
+			header.flip();
+			if (header.getInt() == TextureCache.MAGIC && header.getInt() == TextureCache.VERSION) {
+				this.readEntries();
+				return;
+			}
+		}
+
+		// New or unreadable file
+		this.channel.truncate(0);
+		header.clear();
+		header.putInt(TextureCache.MAGIC).putInt(TextureCache.VERSION).flip();
+		this.channel.write(header, 0);
+	}
+
+	private void readEntries() throws IOException {
+		final long end = this.channel.size();
+		final ByteBuffer length = ByteBuffer.allocate(8);
+		long position = TextureCache.HEADER_SIZE;
+		Entry entry, old;
+		ByteBuffer record;
+		byte[] name;
+
+		while (position + 8 <= end) {
+			length.clear();
+			this.channel.read(length, position);
+			length.flip();
+			entry = new Entry();
+			entry.position = position;
+			entry.length = length.getLong();
+			if (entry.length < 8 || position + entry.length > end)
+				break;
+
+			record = ByteBuffer.allocate((int) Math.min(entry.length - 8, 4096));
+			this.channel.read(record, position + 8);
+			record.flip();
+			try {
+				name = new byte[record.getShort()];
+				record.get(name);
+				entry.modified = record.getLong();
+				entry.size = record.getLong();
+				entry.width = record.getInt();
+				entry.height = record.getInt();
+				if (record.getInt() != TextureCache.FORMAT_RGB8)
+					break;
+			} catch (RuntimeException e) {
+				// Damaged record
+				break;
+			}
+			entry.pixels = position + 8 + record.position();
+			if (entry.pixels + (long) entry.width * entry.height * 3 > position + entry.length)
+				break;
+
+			old = this.entries.put(new String(name, TextureCache.UTF8), entry);
+			if (old != null)
+				this.stale += old.length;
+			position += entry.length;
+		}
+
+		// Drops a record only partly written
+		if (position < end)
+			this.channel.truncate(position);
+	}
+
+	private void compact() throws IOException {
+		final File copy = new File(this.file.getPath() + ".tmp");
+		final RandomAccessFile out = new RandomAccessFile(copy, "rw");
+		try {
+			final FileChannel target = out.getChannel();
+			target.truncate(0);
+			this.channel.transferTo(0, TextureCache.HEADER_SIZE, target);
+			for (Entry entry : this.entries.values())
+				this.channel.transferTo(entry.position, entry.length, target);
+		} finally {
+			out.close();
+		}
+
+		this.raf.close();
+		if (!this.file.delete() || !copy.renameTo(this.file))
+			throw new IOException("Cannot replace " + this.file);
+		this.open();
+	}
+
+	/**
+	 * Returns the cached pixels of an image, or null if the image is not in
+	 * the cache or its file changed since
+	 *
+	 * @param path
+	 *            the path of the image
+	 */
+	public synchronized TextureReader.Texture get(String path) throws IOException {
+		final Entry entry = this.entries.get(path);
+		if (entry == null || entry.modified != ResourceRetriever.getLastModified(path)
+				|| entry.size != ResourceRetriever.getSize(path))
+			return null;
+
+		final ByteBuffer pixels = this.channel.map(FileChannel.MapMode.READ_ONLY,
+				entry.pixels, entry.width * entry.height * 3);
+		return new TextureReader.Texture(pixels, entry.width, entry.height);
+	}
+
+	/**
+	 * Stores the pixels of an image. Only images read from files or from
+	 * mounted archives are cached.
+	 *
+	 * @param path
+	 *            the path of the image
+	 * @param image
+	 *            the RGB pixels of the image
+	 */
+	public synchronized void put(String path, TextureReader.Texture image) throws IOException {
+		final long modified = ResourceRetriever.getLastModified(path);
+		final long size = ResourceRetriever.getSize(path);
+		if (modified < 0 || size < 0)
+			return;
+
+		final byte[] name = path.getBytes(TextureCache.UTF8);
+		final ByteBuffer pixels = image.getPixels().duplicate();
+		pixels.rewind();
+		if (pixels.remaining() != image.getWidth() * image.getHeight() * 3)
+			throw new IllegalArgumentException("Only RGB images can be cached");
+		final ByteBuffer header = ByteBuffer.allocate(8 + 2 + name.length + 8 + 8 + 4 + 4 + 4);
+
+		final Entry entry = new Entry();
+		entry.position = this.channel.size();
+		entry.length = header.capacity() + pixels.remaining();
+		entry.modified = modified;
+		entry.size = size;
+		entry.width = image.getWidth();
+		entry.height = image.getHeight();
+		entry.pixels = entry.position + header.capacity();
+
+		header.putLong(entry.length);
+		header.putShort((short) name.length).put(name);
+		header.putLong(entry.modified).putLong(entry.size);
+		header.putInt(entry.width).putInt(entry.height).putInt(TextureCache.FORMAT_RGB8);
+		header.flip();
+
+		long position = entry.position;
+		while (header.hasRemaining())
+			position += this.channel.write(header, position);
+		while (pixels.hasRemaining())
+			position += this.channel.write(pixels, position);
+
+		final Entry old = this.entries.put(path, entry);
+		if (old != null)
+			this.stale += old.length;
+	}
+
+	/**
+	 * Returns the pixels of an image, from the cache if possible, otherwise
+	 * decoding the image and adding it to the cache. May be called from
+	 * several threads.
+	 *
+	 * @param path
+	 *            the path of the image
+	 * @throws IOException
+	 *             if the image cannot be decoded
+	 */
+	public TextureReader.Texture read(String path) throws IOException {
+		try {
+			final TextureReader.Texture cached = this.get(path);
+			if (cached != null)
+				return cached;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		// Decoded outside of the lock, other images can be read meanwhile
+		final TextureReader.Texture image = TextureReader.readTexture(path);
+		try {
+			this.put(path, image);
+		} catch (IOException e) {
+			// The image can be used anyway
+			System.err.println("Cannot cache " + path + ": " + e.getMessage());
+		}
+		return image;
+	}
+
+	/**
+	 * Closes the file. The images already read remain valid.
+	 */
+	public synchronized void close() {
+		try {
+			this.raf.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -9,6 +9,8 @@ import com.jogamp.opengl.glu.GLU;
 public class TextureHandler {
 
 	private final int NO_TEXTURES = 1;
+	// Textures at least this large are compressed on the GPU, when supported
+	private static final int COMPRESSED_PIXELS = 512 * 512;
 	private int texture[] = new int[NO_TEXTURES];
 	TextureReader.Texture[] tex = new TextureReader.Texture[NO_TEXTURES];
 	
@@ -18,6 +20,14 @@ public class TextureHandler {
 	
 
 	public TextureHandler(GL gl, GLU glu, String path, boolean mipmapped) {
+		this(gl, glu, TextureHandler.read(path), mipmapped);
+	}
+
+	/**
+	 * Creates the texture from an image which has already been decoded, e.g.
+	 * by a {@link TextureManager} worker. Must be called from the GL thread.
+	 */
+	public TextureHandler(GL gl, GLU glu, TextureReader.Texture image, boolean mipmapped) {
 		this.gl = gl;
 		this.glu = glu;
 
@@ -26,13 +36,7 @@ public class TextureHandler {
 		// Bind (select) the texture.
 		this.gl.glBindTexture(GL.GL_TEXTURE_2D, texture[0]);
 
-		// Read the texture from the image.
-		try {
-			tex[0] = TextureReader.readTexture(path);
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new RuntimeException(e);
-		}
+		tex[0] = image;
 
 		// Define the filters used when the texture is scaled.
 		this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER,
@@ -48,6 +52,16 @@ public class TextureHandler {
 
 	}
 
+	// Read the texture from the image.
+	private static TextureReader.Texture read(String path) {
+		try {
+			return TextureReader.readTexture(path);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new RuntimeException(e);
+		}
+	}
+
 	public void bind() {
 		this.gl.glBindTexture(GL.GL_TEXTURE_2D, texture[0]);
 	}
@@ -62,12 +76,19 @@ public class TextureHandler {
 	
 	private void makeRGBTexture(GL gl, GLU glu, TextureReader.Texture img,
 			int target, boolean mipmapped) {
+		// The driver compresses large textures to DXT1, which takes a sixth
+		// of the memory of RGB8
+		int internalFormat = mipmapped ? GL.GL_RGB8 : GL.GL_RGB;
+		if (img.getWidth() * img.getHeight() >= TextureHandler.COMPRESSED_PIXELS
+				&& gl.isExtensionAvailable("GL_EXT_texture_compression_s3tc"))
+			internalFormat = GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+
 		if (mipmapped) {
-			glu.gluBuild2DMipmaps(target, GL.GL_RGB8, img.getWidth(), img
+			glu.gluBuild2DMipmaps(target, internalFormat, img.getWidth(), img
 					.getHeight(), GL.GL_RGB, GL.GL_UNSIGNED_BYTE, img
 					.getPixels());
 		} else {
-			gl.glTexImage2D(target, 0, GL.GL_RGB, img.getWidth(), img
+			gl.glTexImage2D(target, 0, internalFormat, img.getWidth(), img
 					.getHeight(), 0, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, img
 					.getPixels());
 		}
@@ -76,4 +97,11 @@ public class TextureHandler {
 	public TextureReader.Texture getTex() {
 		return tex[0];
 	}
+
+	/**
+	 * Releases the texture
+	 */
+	public void delete() {
+		this.gl.glDeleteTextures(1, texture, 0);
+	}
 }
@@ -0,0 +1,115 @@
+package texture;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads textures in the background. Images are decoded by a pool of worker
+ * threads and only sent to OpenGL, from the GL thread, the first time they
+ * are used. Until then the callers draw a placeholder, so nothing has to be
+ * loaded before the first frame.
+ *
+ * @author Marc Frincu
+ * @since Oct 2026
+ *
+ */
+public class TextureManager {
+
+	private final ExecutorService decoder;
+	// Decoded images kept between runs, may be null
+	private final TextureCache cache;
+	private final HashMap<String, ManagedTexture> textures = new HashMap<String, ManagedTexture>();
+
+	public TextureManager() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param cache
+	 *            the cache the decoded images are kept in, or null
+	 */
+	public TextureManager(TextureCache cache) {
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), cache);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads
+	 *            the number of threads decoding the images
+	 * @param cache
+	 *            the cache the decoded images are kept in, or null
+	 */
+	public TextureManager(int threads, TextureCache cache) {
+		this.cache = cache;
+		this.decoder = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count = 0;
+
+			public synchronized Thread newThread(Runnable task) {
+				final Thread thread = new Thread(task, "TextureDecoder-" + (++count));
+				// Never keeps the application alive
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Starts decoding an image, or reading it from the cache. Every call
+	 * reads the image again, use {@link #get(String)} for textures used more
+	 * than once.
+	 *
+	 * @param path
+	 *            the path of the image
+	 * @return the pixels of the image, once decoded
+	 */
+	public Future<TextureReader.Texture> decode(final String path) {
+		return this.decoder.submit(new Callable<TextureReader.Texture>() {
+			public TextureReader.Texture call() throws Exception {
+				if (TextureManager.this.cache != null)
+					return TextureManager.this.cache.read(path);
+				return TextureReader.readTexture(path);
+			}
+		});
+	}
+
+	/**
+	 * Returns the texture of an image. The image starts being decoded the
+	 * first time it is asked for.
+	 *
+	 * @param path
+	 *            the path of the image
+	 */
+	public synchronized ManagedTexture get(String path) {
+		ManagedTexture texture = this.textures.get(path);
+		if (texture == null) {
+			texture = new ManagedTexture(path, this.decode(path));
+			this.textures.put(path, texture);
+		}
+		return texture;
+	}
+
+	/**
+	 * Releases every texture uploaded so far. To be called from the GL
+	 * thread.
+	 */
+	public synchronized void delete() {
+		for (ManagedTexture texture : this.textures.values())
+			texture.delete();
+		this.textures.clear();
+	}
+
+	/**
+	 * Stops the workers. Images not yet decoded will never be.
+	 */
+	public void shutdown() {
+		this.decoder.shutdownNow();
+	}
+}
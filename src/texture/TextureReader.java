@@ -4,16 +4,39 @@ import javax.imageio.ImageIO;
 import com.jogamp.common.nio.Buffers;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.PixelGrabber;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
  
 /**
  * Image loading class that converts BufferedImages into a data
  * structure that can be easily passed to OpenGL.
+ * The pixels are copied straight from the raster of the image, and the rows
+ * of large images are split between the available cores.
  * @author Pepijn Van Eeckhoudt
 */
 public class TextureReader {
+
+	// Smaller images are converted by the calling thread alone
+	private static final int PIXELS_PER_TASK = 256 * 1024;
+	private static volatile boolean parallel = true;
+	private static ExecutorService executor = null;
+ 
+	static {
+		// The streams are buffered in memory, not in temporary files
+		ImageIO.setUseCache(false);
+	}
  
 	public static Texture readTexture(String filename) throws IOException {
 		return readTexture(filename, false);
@@ -31,36 +54,228 @@ public class TextureReader {
 	}
  
 	private static BufferedImage readImage(String resourceName) throws IOException {
-		return ImageIO.read(ResourceRetriever.getResourceAsStream(resourceName));
+		final InputStream stream = ResourceRetriever.getResourceAsStream(resourceName);
+		try {
+			return ImageIO.read(stream);
+		} finally {
+			// Gives the buffer back to the pool
+			stream.close();
+		}
 	}
  
 	private static Texture readPixels(BufferedImage img, boolean storeAlphaChannel) {
-		int[] packedPixels = new int[img.getWidth() * img.getHeight()];
-		PixelGrabber pixelgrabber = new PixelGrabber(img, 0, 0, img.getWidth(), img.getHeight(), packedPixels, 0, img.getWidth());
+		final int width = img.getWidth(), height = img.getHeight();
+		final int bytesPerPixel = storeAlphaChannel ? 4 : 3;
+		final ByteBuffer unpackedPixels = Buffers.newDirectByteBuffer(width * height * bytesPerPixel);
+		final RowConverter converter = RowConverter.create(img, storeAlphaChannel);
  
-		try {
-			pixelgrabber.grabPixels();
-		} catch (InterruptedException e) {
-			throw new RuntimeException();
+		final int threads = Math.min(TextureReader.parallel ? Runtime.getRuntime().availableProcessors() : 1,
+				width * height / TextureReader.PIXELS_PER_TASK);
+		if (threads <= 1) {
+			converter.convert(unpackedPixels, 0, height);
+		} else {
+			// Each task converts a band of rows, the last one is done here
+			final ArrayList<Future<?>> tasks = new ArrayList<Future<?>>();
+			int first, last;
+			for (int i = 0; i < threads - 1; i++) {
+				first = height * i / threads;
+				last = height * (i + 1) / threads;
+				tasks.add(TextureReader.getExecutor().submit(converter.task(unpackedPixels, first, last)));
+			}
+			converter.convert(unpackedPixels, height * (threads - 1) / threads, height);
+			try {
+				for (Future<?> task : tasks)
+					task.get();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
 		}
  
-		int bytesPerPixel = storeAlphaChannel ? 4 : 3;
-		ByteBuffer unpackedPixels = Buffers.newDirectByteBuffer(packedPixels.length * bytesPerPixel);
- 
-		for (int row = img.getHeight() - 1; row >= 0; row--) {
-			for (int col = 0; col < img.getWidth(); col++) {
-				int packedPixel = packedPixels[row * img.getWidth() + col];
-				unpackedPixels.put((byte) ((packedPixel >> 16) & 0xFF));
-				unpackedPixels.put((byte) ((packedPixel >> 8) & 0xFF));
-				unpackedPixels.put((byte) ((packedPixel >> 0) & 0xFF));
-				if (storeAlphaChannel) {
-					unpackedPixels.put((byte) ((packedPixel >> 24) & 0xFF));
+		unpackedPixels.rewind();
+		return new Texture(unpackedPixels, width, height);
+	}
+
+	/**
+	 * Sets whether the rows of large images are converted by several threads
+	 */
+	public static void setParallel(boolean parallel) {
+		TextureReader.parallel = parallel;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (TextureReader.executor == null) {
+			TextureReader.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+				private int count = 0;
+
+				public synchronized Thread newThread(Runnable task) {
+					final Thread thread = new Thread(task, "TextureReader-" + (++count));
+					thread.setDaemon(true);
+					return thread;
 				}
+			});
+		}
+		return TextureReader.executor;
+	}
+
+	/**
+	 * Converts rows of an image to the RGB(A) bytes OpenGL expects, the last
+	 * row first. The samples are read straight from the raster when its
+	 * layout is a known one, otherwise through the color model.
+	 */
+	private static abstract class RowConverter {
+		protected final int width, height, bytesPerPixel;
+
+		RowConverter(BufferedImage img, boolean storeAlphaChannel) {
+			this.width = img.getWidth();
+			this.height = img.getHeight();
+			this.bytesPerPixel = storeAlphaChannel ? 4 : 3;
+		}
+
+		static RowConverter create(BufferedImage img, boolean storeAlphaChannel) {
+			final WritableRaster raster = img.getRaster();
+			// Sub images share the buffer of their parent, they take the slow path
+			if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+					|| raster.getDataBuffer().getNumBanks() != 1)
+				return new ColorModelRows(img, storeAlphaChannel);
+
+			switch (img.getType()) {
+			case BufferedImage.TYPE_3BYTE_BGR:
+			case BufferedImage.TYPE_4BYTE_ABGR:
+				return new ByteRows(img, storeAlphaChannel);
+			case BufferedImage.TYPE_INT_RGB:
+			case BufferedImage.TYPE_INT_ARGB:
+			case BufferedImage.TYPE_INT_BGR:
+				return new IntRows(img, storeAlphaChannel);
+			default:
+				return new ColorModelRows(img, storeAlphaChannel);
+			}
+		}
+
+		/**
+		 * Converts the rows first (included) to last (excluded)
+		 */
+		void convert(ByteBuffer pixels, int first, int last) {
+			final byte[] row = new byte[this.width * this.bytesPerPixel];
+			// Each thread writes through its own view of the buffer
+			final ByteBuffer out = pixels.duplicate();
+			for (int y = first; y < last; y++) {
+				this.convertRow(y, row);
+				out.position((this.height - 1 - y) * row.length);
+				out.put(row);
+			}
+		}
+
+		Runnable task(final ByteBuffer pixels, final int first, final int last) {
+			return new Runnable() {
+				public void run() {
+					RowConverter.this.convert(pixels, first, last);
+				}
+			};
+		}
+
+		abstract void convertRow(int y, byte[] row);
+	}
+
+	/**
+	 * Images stored as interleaved bytes, e.g. the JPEGs read by ImageIO
+	 */
+	private static class ByteRows extends RowConverter {
+		private final byte[] data;
+		private final int offset, scanlineStride, pixelStride;
+		private final int red, green, blue, alpha;
+
+		ByteRows(BufferedImage img, boolean storeAlphaChannel) {
+			super(img, storeAlphaChannel);
+			final DataBufferByte buffer = (DataBufferByte) img.getRaster().getDataBuffer();
+			final PixelInterleavedSampleModel model = (PixelInterleavedSampleModel) img.getSampleModel();
+			final int[] bands = model.getBandOffsets();
+			this.data = buffer.getData();
+			this.offset = buffer.getOffset();
+			this.scanlineStride = model.getScanlineStride();
+			this.pixelStride = model.getPixelStride();
+			this.red = bands[0];
+			this.green = bands[1];
+			this.blue = bands[2];
+			this.alpha = bands.length > 3 ? bands[3] : -1;
+		}
+
+		void convertRow(int y, byte[] row) {
+			int from = this.offset + y * this.scanlineStride;
+			int to = 0;
+			for (int x = 0; x < this.width; x++) {
+				row[to++] = this.data[from + this.red];
+				row[to++] = this.data[from + this.green];
+				row[to++] = this.data[from + this.blue];
+				if (this.bytesPerPixel == 4)
+					row[to++] = this.alpha < 0 ? (byte) 0xFF : this.data[from + this.alpha];
+				from += this.pixelStride;
+			}
+		}
+	}
+
+	/**
+	 * Images stored as one int per pixel
+	 */
+	private static class IntRows extends RowConverter {
+		private final int[] data;
+		private final int offset, scanlineStride;
+		private final boolean bgr, hasAlpha;
+
+		IntRows(BufferedImage img, boolean storeAlphaChannel) {
+			super(img, storeAlphaChannel);
+			final DataBufferInt buffer = (DataBufferInt) img.getRaster().getDataBuffer();
+			this.data = buffer.getData();
+			this.offset = buffer.getOffset();
+			this.scanlineStride = ((SinglePixelPackedSampleModel) img.getSampleModel()).getScanlineStride();
+			this.bgr = img.getType() == BufferedImage.TYPE_INT_BGR;
+			this.hasAlpha = img.getType() == BufferedImage.TYPE_INT_ARGB;
+		}
+
+		void convertRow(int y, byte[] row) {
+			int from = this.offset + y * this.scanlineStride;
+			int to = 0, pixel;
+			for (int x = 0; x < this.width; x++) {
+				pixel = this.data[from++];
+				if (this.bgr) {
+					row[to++] = (byte) pixel;
+					row[to++] = (byte) (pixel >> 8);
+					row[to++] = (byte) (pixel >> 16);
+				} else {
+					row[to++] = (byte) (pixel >> 16);
+					row[to++] = (byte) (pixel >> 8);
+					row[to++] = (byte) pixel;
+				}
+				if (this.bytesPerPixel == 4)
+					row[to++] = this.hasAlpha ? (byte) (pixel >>> 24) : (byte) 0xFF;
+			}
+		}
+	}
+
+	/**
+	 * Any other image, converted to ARGB by its color model one row at a time
+	 */
+	private static class ColorModelRows extends RowConverter {
+		private final BufferedImage img;
+
+		ColorModelRows(BufferedImage img, boolean storeAlphaChannel) {
+			super(img, storeAlphaChannel);
+			this.img = img;
+		}
+
+		void convertRow(int y, byte[] row) {
+			final int[] packedPixels = new int[this.width];
+			this.img.getRGB(0, y, this.width, 1, packedPixels, 0, this.width);
+			int to = 0;
+			for (int packedPixel : packedPixels) {
+				row[to++] = (byte) ((packedPixel >> 16) & 0xFF);
+				row[to++] = (byte) ((packedPixel >> 8) & 0xFF);
+				row[to++] = (byte) ((packedPixel >> 0) & 0xFF);
+				if (this.bytesPerPixel == 4)
+					row[to++] = (byte) ((packedPixel >> 24) & 0xFF);
 			}
 		}
- 
-		unpackedPixels.flip();
-		return new Texture(unpackedPixels, img.getWidth(), img.getHeight());
 	}
  
 	public static class Texture {